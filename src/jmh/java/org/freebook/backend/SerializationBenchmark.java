@@ -0,0 +1,104 @@
+package org.freebook.backend;
+
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.freebook.backend.post.Post;
+import org.freebook.backend.user.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of response bodies. Likes moved to their own collection, so the list that
+ * still grows with activity is a user's saved posts, measured at 10, 1k and 100k entries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int savedPosts;
+
+    private ObjectMapper objectMapper;
+    private Post post;
+    private List<Post> page;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        // the builder applies the same defaults as the application's mapper
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        post = samplePost();
+        page = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            page.add(samplePost());
+        }
+        List<UUID> saved = new ArrayList<>(savedPosts);
+        for (int i = 0; i < savedPosts; i++) {
+            saved.add(UUID.randomUUID());
+        }
+        user = User.builder()
+                .id(UUID.randomUUID())
+                .accountId(UUID.randomUUID())
+                .username("bench")
+                .name("Bench Mark")
+                .email("bench@freebook.org")
+                .bio("Benchmarks all day")
+                .imgUrl("https://img.freebook.org/bench.png")
+                .imgId("bench")
+                .savedPosts(saved)
+                .postCount(42)
+                .version(1L)
+                .build();
+    }
+
+    private static Post samplePost() {
+        return Post.builder()
+                .id(UUID.randomUUID())
+                .caption("Sunset over the bay, shot on film")
+                .tags(List.of("sunset", "film", "bay"))
+                .imgUrl("https://img.freebook.org/sunset.png")
+                .imgId("sunset")
+                .location("San Francisco")
+                .createdAt(LocalDateTime.now())
+                .creatorId(UUID.randomUUID())
+                .likeCount(1234)
+                .version(3L)
+                .build();
+    }
+
+    @Benchmark
+    public byte[] serializePost() throws Exception {
+        return objectMapper.writeValueAsBytes(post);
+    }
+
+    @Benchmark
+    public byte[] serializeRecentPage() throws Exception {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializeUser() throws Exception {
+        return objectMapper.writeValueAsBytes(user);
+    }
+
+}
@@ -0,0 +1,78 @@
+package org.freebook.backend.configs;
+
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.freebook.backend.user.AuthUser;
+import org.freebook.backend.user.AuthUserCache;
+import org.freebook.backend.user.AuthUserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One request through the filter, from the Authorization header to an authenticated security context.
+ * The user lookup is a stub behind the real cache, {@code cached=false} measures a miss on every request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthFilterBenchmark {
+
+    @Param({"true", "false"})
+    public boolean cached;
+
+    private JwtAuthFilter filter;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        JwtService jwtService = JwtFixtures.jwtService();
+        AuthUser user = JwtFixtures.authUser();
+        AuthUserRepository repository = (AuthUserRepository) Proxy.newProxyInstance(
+                AuthUserRepository.class.getClassLoader(),
+                new Class<?>[]{AuthUserRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findByEmail")) {
+                        return Optional.of(user);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                }
+        );
+        AuthUserCache cache = new AuthUserCache(repository, cached ? 10_000 : 0, Duration.ofMinutes(5), false);
+        filter = new JwtAuthFilter(jwtService, cache, new SimpleMeterRegistry());
+        authorization = "Bearer " + jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public Object authenticate() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/posts/recent");
+        request.addHeader("Authorization", authorization);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+}
@@ -0,0 +1,39 @@
+package org.freebook.backend.configs;
+
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.freebook.backend.user.AuthUser;
+import org.freebook.backend.user.UserRoles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Services built by hand the way the context would, without a database.
+ */
+final class JwtFixtures {
+
+    private JwtFixtures() {
+    }
+
+    static JwtService jwtService() {
+        JwtService jwtService = new JwtService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtService, "secretKey", Base64.getEncoder().encodeToString(new byte[32]));
+        ReflectionTestUtils.setField(jwtService, "tokenLifespan", 3_600_000L);
+        jwtService.init();
+        return jwtService;
+    }
+
+    static AuthUser authUser() {
+        return AuthUser.builder()
+                .id(UUID.randomUUID())
+                .username("bench")
+                .name("Bench Mark")
+                .email("bench@freebook.org")
+                .password("{noop}unused")
+                .role(UserRoles.USER)
+                .build();
+    }
+
+}
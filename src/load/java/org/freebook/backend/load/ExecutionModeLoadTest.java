@@ -0,0 +1,135 @@
+package org.freebook.backend.load;
+
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.freebook.backend.BackendApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Latency and throughput of the like and creator timeline endpoints with request handling on
+ * Tomcat's worker pool, then on virtual threads, each against a fresh application and database on
+ * the same mongod. Timelines are read from Mongo on every request, unlike the recent feed which is
+ * served from memory, so both endpoints wait on the database.
+ * The default concurrency is above Tomcat's 200 workers, where platform threads start queueing
+ * while they wait on Mongo. Both runs are printed side by side and written to
+ * {@code target/load-modes-report.json}.
+ * <p>
+ * The virtual run is watched by a {@link PinningGuard} and fails if any virtual thread parked while
+ * pinned, up to {@code -Dload.pinning.allowed} pinnings are tolerated.
+ */
+class ExecutionModeLoadTest {
+
+    private static final int USERS = Integer.getInteger("load.users", 50);
+    private static final int POSTS_PER_USER = Integer.getInteger("load.posts-per-user", 20);
+    private static final int CONCURRENCY = Integer.getInteger("load.modes.concurrency", 400);
+    private static final Duration PHASE = Duration.ofSeconds(Integer.getInteger("load.phase-seconds", 15));
+    private static final int PINNING_ALLOWED = Integer.getInteger("load.pinning.allowed", 0);
+    private static final double MAX_ERROR_RATE = 0.01;
+
+    @Test
+    void platformThenVirtualThreads() throws Exception {
+        Map<String, Map<String, LatencyStats.Summary>> report = new LinkedHashMap<>();
+        List<String> pinned;
+        try (LoadMongo mongo = LoadMongo.start()) {
+            report.put("platform", run(mongo, false));
+            try (PinningGuard guard = PinningGuard.start()) {
+                report.put("virtual", run(mongo, true));
+                pinned = guard.pinned();
+            }
+        }
+
+        print(report);
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(new File("target/load-modes-report.json"), report);
+        List<String> violations = new ArrayList<>();
+        report.forEach((mode, summaries) -> summaries.forEach((endpoint, s) -> {
+            if (s.errorRate() > MAX_ERROR_RATE) {
+                violations.add(mode + " " + endpoint + ": error rate " + s.errorRate());
+            }
+        }));
+        assertTrue(violations.isEmpty(), "Failed requests:\n" + String.join("\n", violations));
+        assertTrue(pinned.size() <= PINNING_ALLOWED,
+                pinned.size() + " virtual thread pinnings:\n" + String.join("\n", pinned));
+    }
+
+    private static Map<String, LatencyStats.Summary> run(LoadMongo mongo, boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        try (ConfigurableApplicationContext app = new SpringApplicationBuilder(BackendApplication.class).run(
+                "--server.port=0",
+                "--spring.data.mongodb.uri=" + mongo.uri(),
+                "--spring.data.mongodb.database=freebook_" + mode + "_" + run,
+                "--security.jwt.secret-key=AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA=",
+                "--management.server.port=-1",
+                "--freebook.logging.sample-rate=1000",
+                "--spring.threads.virtual.enabled=" + virtualThreads
+        )) {
+            LoadClient client = new LoadClient(((WebServerApplicationContext) app).getWebServer().getPort());
+            Map<String, LatencyStats.Summary> report = new LinkedHashMap<>();
+
+            List<String> tokens = new ArrayList<>();
+            List<String> userIds = new ArrayList<>();
+            for (int i = 0; i < USERS; i++) {
+                String email = "modes-" + run + "-" + i + "@freebook.org";
+                client.post("register", "/auth/register", null, Map.of(
+                        "name", "Modes User " + i,
+                        "username", "modes" + run + i,
+                        "email", email,
+                        "password", "password-" + i
+                ));
+                JsonNode login = client.post("login", "/auth/auth", null, Map.of("email", email, "password", "password-" + i));
+                tokens.add(login.get("token").asText());
+                userIds.add(client.get("current", "/users/current", tokens.get(i)).get("id").asText());
+            }
+            LoadPhases.runCount(16, USERS * POSTS_PER_USER, i -> client.post("create", "/posts/create", tokens.get(i % USERS), Map.of(
+                    "caption", "post " + i,
+                    "tags", List.of(),
+                    "imgUrl", "",
+                    "imgId", "",
+                    "location", "Modes"
+            )));
+            String hotPost = client.get("recent", "/posts/recent?limit=1", tokens.get(0))
+                    .get("items").get(0).get("id").asText();
+            client.reset();
+
+            // likes and timeline reads interleaved, so a saturated pool delays both
+            long start = System.nanoTime();
+            LoadPhases.runFor(CONCURRENCY, PHASE, () -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                String token = tokens.get(random.nextInt(USERS));
+                int pick = random.nextInt(4);
+                if (pick == 0) {
+                    client.patch("like", "/posts/like?postId=" + hotPost, token, Set.of(409));
+                } else if (pick == 1) {
+                    client.patch("unlike", "/posts/unlike?postId=" + hotPost, token, Set.of(409));
+                } else {
+                    client.get("timeline", "/posts/creator/" + userIds.get(random.nextInt(USERS)) + "?limit=20", token);
+                }
+            });
+            report.putAll(client.summarize((System.nanoTime() - start) / 1e9));
+            return report;
+        }
+    }
+
+    private static void print(Map<String, Map<String, LatencyStats.Summary>> report) {
+        System.out.printf("%-9s %-8s %8s %7s %10s %9s %9s %9s%n", "mode", "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms");
+        report.forEach((mode, summaries) -> summaries.forEach((endpoint, s) -> System.out.printf("%-9s %-8s %8d %7d %10.1f %9.2f %9.2f %9.2f%n",
+                mode, endpoint, s.requests(), s.errors(), s.throughput(), s.p50Ms(), s.p99Ms(), s.p999Ms())));
+    }
+
+}
@@ -0,0 +1,54 @@
+package org.freebook.backend.load;
+
+
+import java.util.Arrays;
+
+/**
+ * Latencies of one endpoint during a run, percentiles are exact over every recorded request.
+ */
+class LatencyStats {
+
+    private long[] nanos = new long[1024];
+    private int count;
+    private int errors;
+
+    synchronized void record(long elapsedNanos, boolean error) {
+        if (count == nanos.length) {
+            nanos = Arrays.copyOf(nanos, count * 2);
+        }
+        nanos[count++] = elapsedNanos;
+        if (error) {
+            errors++;
+        }
+    }
+
+    synchronized Summary summarize(double seconds) {
+        long[] sorted = Arrays.copyOf(nanos, count);
+        Arrays.sort(sorted);
+        return new Summary(
+                count,
+                errors,
+                count / seconds,
+                percentile(sorted, 0.50),
+                percentile(sorted, 0.99),
+                percentile(sorted, 0.999)
+        );
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    record Summary(int requests, int errors, double throughput, double p50Ms, double p99Ms, double p999Ms) {
+
+        double errorRate() {
+            return requests == 0 ? 0 : (double) errors / requests;
+        }
+
+    }
+
+}
@@ -0,0 +1,107 @@
+package org.freebook.backend.load;
+
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * HTTP client of the running application that times every call under an endpoint name.
+ * Statuses listed as expected, such as 409 for a repeated like, are not counted as errors.
+ */
+class LoadClient {
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final Map<String, LatencyStats> stats = new ConcurrentHashMap<>();
+
+    LoadClient(int port) {
+        this.baseUrl = "http://localhost:" + port + "/api/v1";
+    }
+
+    JsonNode get(String endpoint, String path, String token) {
+        return send(endpoint, request(path, token).GET(), Set.of());
+    }
+
+    JsonNode post(String endpoint, String path, String token, Object body) {
+        return send(endpoint, request(path, token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json(body))), Set.of());
+    }
+
+    JsonNode patch(String endpoint, String path, String token, Set<Integer> expected) {
+        return send(endpoint, request(path, token).method("PATCH", HttpRequest.BodyPublishers.noBody()), expected);
+    }
+
+    Map<String, LatencyStats.Summary> summarize(double seconds) {
+        Map<String, LatencyStats.Summary> summaries = new TreeMap<>();
+        stats.forEach((endpoint, latencies) -> summaries.put(endpoint, latencies.summarize(seconds)));
+        return summaries;
+    }
+
+    void reset() {
+        stats.clear();
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private JsonNode send(String endpoint, HttpRequest.Builder request, Set<Integer> expected) {
+        long start = System.nanoTime();
+        int status;
+        String body;
+        try {
+            HttpResponse<String> response = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            status = response.statusCode();
+            body = response.body();
+        } catch (IOException e) {
+            status = -1;
+            body = null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        boolean ok = status >= 200 && status < 300;
+        stats.computeIfAbsent(endpoint, key -> new LatencyStats())
+                .record(System.nanoTime() - start, !ok && !expected.contains(status));
+        return ok ? parse(body) : null;
+    }
+
+    private JsonNode parse(String body) {
+        try {
+            // some endpoints answer with a plain message
+            return body == null || body.isEmpty() ? null : objectMapper.readTree(body);
+        } catch (IOException e) {
+            return objectMapper.getNodeFactory().textNode(body);
+        }
+    }
+
+    private String json(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,51 @@
+package org.freebook.backend.load;
+
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+
+/**
+ * The mongod a load run goes against, the one at {@code -Dload.mongo-uri} when given,
+ * otherwise one downloaded and started for the run. With {@code -Dload.mongo-backend=memory}
+ * an in-process wire protocol server is started instead, for hosts that cannot download mongod.
+ * It has no disk and no real query planner, so its numbers only compare runs made against it.
+ */
+final class LoadMongo implements AutoCloseable {
+
+    private final Runnable stop;
+    private final String uri;
+
+    private LoadMongo(Runnable stop, String uri) {
+        this.stop = stop;
+        this.uri = uri;
+    }
+
+    static LoadMongo start() {
+        String external = System.getProperty("load.mongo-uri");
+        if (external != null) {
+            return new LoadMongo(null, external);
+        }
+        if ("memory".equals(System.getProperty("load.mongo-backend"))) {
+            MongoServer server = new MongoServer(new MemoryBackend());
+            var address = server.bind();
+            return new LoadMongo(server::shutdownNow, "mongodb://" + address.getHostString() + ":" + address.getPort() + "/");
+        }
+        var mongod = Mongod.instance().start(Version.Main.V7_0);
+        var address = mongod.current().getServerAddress();
+        return new LoadMongo(mongod::close, "mongodb://" + address.getHost() + ":" + address.getPort() + "/");
+    }
+
+    String uri() {
+        return uri;
+    }
+
+    @Override
+    public void close() {
+        if (stop != null) {
+            stop.run();
+        }
+    }
+
+}
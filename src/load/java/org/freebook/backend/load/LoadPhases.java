@@ -0,0 +1,56 @@
+package org.freebook.backend.load;
+
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs the client side of a phase on a fixed number of threads, each one request at a time.
+ */
+final class LoadPhases {
+
+    private LoadPhases() {
+    }
+
+    static void runCount(int concurrency, int total, IntConsumer task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < total; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> task.accept(index)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    static void runFor(int concurrency, Duration phase, Runnable task) throws Exception {
+        long deadline = System.nanoTime() + phase.toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                workers.add(executor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        task.run();
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,201 @@
+package org.freebook.backend.load;
+
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Throughput and latency of realistic request mixes against the whole application and a real mongod.
+ * Uses the mongod at {@code -Dload.mongo-uri} when given, otherwise downloads and starts one.
+ * Each endpoint's throughput and p50/p99/p999 are printed and written to {@code target/load-report.json},
+ * and the run fails when an endpoint breaks a limit of {@code load-thresholds.properties}.
+ * Limits can be overridden with {@code -Dload.threshold.<endpoint>.<key>}.
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.data.mongodb.database=freebook_load",
+                "security.jwt.secret-key=AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA=",
+                "management.server.port=-1",
+                "freebook.logging.sample-rate=1000"
+        }
+)
+class LoadTest {
+
+    private static final int USERS = Integer.getInteger("load.users", 50);
+    private static final int POSTS_PER_USER = Integer.getInteger("load.posts-per-user", 20);
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 16);
+    private static final Duration PHASE = Duration.ofSeconds(Integer.getInteger("load.phase-seconds", 15));
+    private static final String[] WORDS = {"sunset", "coffee", "mountain", "city", "film", "dog", "beach", "night"};
+
+    private static LoadMongo mongo;
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void mongo(DynamicPropertyRegistry registry) {
+        mongo = LoadMongo.start();
+        registry.add("spring.data.mongodb.uri", mongo::uri);
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        if (mongo != null) {
+            mongo.close();
+        }
+    }
+
+    @Test
+    void mixes() throws Exception {
+        LoadClient client = new LoadClient(port);
+        Map<String, LatencyStats.Summary> report = new LinkedHashMap<>();
+        String run = UUID.randomUUID().toString().substring(0, 8);
+
+        // accounts
+        List<String> tokens = new ArrayList<>();
+        List<String> userIds = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < USERS; i++) {
+            String email = "load-" + run + "-" + i + "@freebook.org";
+            client.post("register", "/auth/register", null, Map.of(
+                    "name", "Load User " + i,
+                    "username", "load" + run + i,
+                    "email", email,
+                    "password", "password-" + i
+            ));
+            JsonNode login = client.post("login", "/auth/auth", null, Map.of("email", email, "password", "password-" + i));
+            String token = login.get("token").asText();
+            tokens.add(token);
+            userIds.add(client.get("current", "/users/current", token).get("id").asText());
+        }
+        collect(client, report, start);
+
+        // content
+        start = System.nanoTime();
+        LoadPhases.runCount(CONCURRENCY, USERS * POSTS_PER_USER, i -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            String first = WORDS[random.nextInt(WORDS.length)];
+            String second = WORDS[random.nextInt(WORDS.length)];
+            client.post("create", "/posts/create", tokens.get(i % USERS), Map.of(
+                    "caption", first + " and " + second + " #" + i,
+                    "tags", List.of(first, second),
+                    "imgUrl", "",
+                    "imgId", "",
+                    "location", "Load"
+            ));
+        });
+        collect(client, report, start);
+
+        // like and unlike storm on one hot post, repeated calls conflict by design
+        String hotPost = client.get("recent", "/posts/recent?limit=1", tokens.get(0))
+                .get("items").get(0).get("id").asText();
+        client.reset();
+        start = System.nanoTime();
+        LoadPhases.runFor(CONCURRENCY, PHASE, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            String token = tokens.get(random.nextInt(USERS));
+            if (random.nextBoolean()) {
+                client.patch("like", "/posts/like?postId=" + hotPost, token, Set.of(409));
+            } else {
+                client.patch("unlike", "/posts/unlike?postId=" + hotPost, token, Set.of(409));
+            }
+        });
+        collect(client, report, start);
+
+        // reads: feed paging, search and creator timelines
+        start = System.nanoTime();
+        LoadPhases.runFor(CONCURRENCY, PHASE, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            String token = tokens.get(random.nextInt(USERS));
+            int pick = random.nextInt(10);
+            if (pick < 5) {
+                String cursor = null;
+                for (int page = 0; page < 3; page++) {
+                    JsonNode body = client.get("recent", "/posts/recent?limit=20"
+                            + (cursor == null ? "" : "&cursor=" + cursor), token);
+                    if (body == null || !body.hasNonNull("nextCursor")) {
+                        break;
+                    }
+                    cursor = body.get("nextCursor").asText();
+                }
+            } else if (pick < 7) {
+                client.get("search", "/posts/search?limit=20&query=" + WORDS[random.nextInt(WORDS.length)], token);
+            } else if (pick < 9) {
+                client.get("creator", "/posts/creator/" + userIds.get(random.nextInt(USERS)) + "?limit=20", token);
+            } else {
+                client.get("post", "/posts/" + hotPost, token);
+            }
+        });
+        collect(client, report, start);
+
+        print(report);
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(new File("target/load-report.json"), report);
+        List<String> violations = check(report);
+        assertTrue(violations.isEmpty(), "Load regressions:\n" + String.join("\n", violations));
+    }
+
+    private static void collect(LoadClient client, Map<String, LatencyStats.Summary> report, long start) {
+        report.putAll(client.summarize((System.nanoTime() - start) / 1e9));
+        client.reset();
+    }
+
+    private static void print(Map<String, LatencyStats.Summary> report) {
+        System.out.printf("%-10s %8s %7s %10s %9s %9s %9s%n", "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms");
+        report.forEach((endpoint, s) -> System.out.printf("%-10s %8d %7d %10.1f %9.2f %9.2f %9.2f%n",
+                endpoint, s.requests(), s.errors(), s.throughput(), s.p50Ms(), s.p99Ms(), s.p999Ms()));
+    }
+
+    private static List<String> check(Map<String, LatencyStats.Summary> report) throws IOException {
+        Properties limits = new Properties();
+        try (InputStream in = LoadTest.class.getResourceAsStream("/load-thresholds.properties")) {
+            limits.load(in);
+        }
+        List<String> violations = new ArrayList<>();
+        report.forEach((endpoint, s) -> {
+            if (s.errorRate() > limit(limits, endpoint, "max-error-rate")) {
+                violations.add(endpoint + ": error rate " + s.errorRate());
+            }
+            if (s.p99Ms() > limit(limits, endpoint, "p99-ms")) {
+                violations.add(endpoint + ": p99 " + s.p99Ms() + " ms");
+            }
+            if (s.p999Ms() > limit(limits, endpoint, "p999-ms")) {
+                violations.add(endpoint + ": p999 " + s.p999Ms() + " ms");
+            }
+            if (s.throughput() < limit(limits, endpoint, "min-throughput")) {
+                violations.add(endpoint + ": throughput " + s.throughput() + " req/s");
+            }
+        });
+        return violations;
+    }
+
+    // -Dload.threshold.<endpoint>.<key>, then the endpoint's own limit, then the default
+    private static double limit(Properties limits, String endpoint, String key) {
+        String value = System.getProperty("load.threshold." + endpoint + "." + key,
+                limits.getProperty(endpoint + "." + key,
+                        System.getProperty("load.threshold.default." + key, limits.getProperty("default." + key))));
+        return Double.parseDouble(value);
+    }
+
+}
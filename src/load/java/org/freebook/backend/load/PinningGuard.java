@@ -0,0 +1,61 @@
+package org.freebook.backend.load;
+
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Records, through an in-process JFR stream, every time a virtual thread of this JVM parked while
+ * pinned to its carrier, typically blocking inside a {@code synchronized} block or a native frame.
+ * Each pinning is kept as its duration and the top frames of its stack.
+ */
+final class PinningGuard implements AutoCloseable {
+
+    private static final String PINNED = "jdk.VirtualThreadPinned";
+    private static final int FRAMES = 12;
+
+    private final RecordingStream stream = new RecordingStream();
+    private final List<String> pinned = Collections.synchronizedList(new ArrayList<>());
+
+    private PinningGuard() {
+        // every pinning, not only the ones past the default 20 ms
+        stream.enable(PINNED).withThreshold(Duration.ZERO).withStackTrace();
+        stream.onEvent(PINNED, event -> pinned.add(describe(event)));
+    }
+
+    static PinningGuard start() {
+        PinningGuard guard = new PinningGuard();
+        guard.stream.startAsync();
+        return guard;
+    }
+
+    /**
+     * The pinnings recorded so far, waiting for the events still buffered by JFR.
+     */
+    List<String> pinned() {
+        stream.stop();
+        return List.copyOf(pinned);
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+
+    private static String describe(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+        return "pinned " + event.getDuration().toMillis() + " ms\n" + frames.stream()
+                .limit(FRAMES)
+                .map(frame -> "    at " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber())
+                .collect(Collectors.joining("\n"));
+    }
+
+}
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Data
 @Builder
@@ -13,6 +14,8 @@ import lombok.NoArgsConstructor;
 public class AuthRequest {
 
     private String email;
+    // never rendered in logs
+    @ToString.Exclude
     private String password;
 
 }
@@ -4,6 +4,8 @@ package org.freebook.backend.auth;
 import lombok.RequiredArgsConstructor;
 import org.freebook.backend.configs.JwtService;
 import org.freebook.backend.user.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -11,7 +13,6 @@ import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.UUID;
-import java.util.logging.Logger;
 
 @Service
 @RequiredArgsConstructor
@@ -23,7 +24,7 @@ public class AuthService {
     private final AuthenticationManager authManager;
     private final UserRepository userRepository;
 
-    private Logger log = Logger.getLogger(AuthService.class.getName());
+    private Logger log = LoggerFactory.getLogger(AuthService.class);
 
     public AuthResponse register(RegisterRequest request) {
         // create auth account
@@ -38,19 +39,20 @@ public class AuthService {
                 .build();
         authUser = authUserRepository.save(authUser);
         var jwtToken = jwtService.generateToken(authUser);
-        log.info("Register successful: " + authUser);
+        log.info("Register successful: {}", authUser.getId());
 
         // sign up
         var user = User.builder()
                 .id(UUID.randomUUID())
                 .name(request.getName())
                 .username(request.getUsername())
+                .usernameKey(UserSearchKeys.normalize(request.getUsername()))
+                .nameKeys(UserSearchKeys.nameKeys(request.getName()))
                 .email(request.getEmail())
                 .accountId(authUser.getId())
                 .bio("")
                 .imgUrl("") //todo: adding images
                 .imgId("")
-                .likedPosts(new ArrayList<>())
                 .savedPosts(new ArrayList<>())
                 .build();
         userRepository.save(user);
@@ -59,7 +61,8 @@ public class AuthService {
     }
 
     public AuthResponse authenticate(AuthRequest request) {
-        log.info("Authenticate request: " + request);
+        // never log the request, it holds the password
+        log.info("Authenticate request received");
         authManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
         );
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Data
 @Builder
@@ -15,6 +16,8 @@ public class RegisterRequest {
     private String name;
     private String username;
     private String email;
+    // never rendered in logs
+    @ToString.Exclude
     private String password;
 
 }
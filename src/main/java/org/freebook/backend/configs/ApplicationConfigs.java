@@ -3,6 +3,7 @@ package org.freebook.backend.configs;
 
 import lombok.RequiredArgsConstructor;
 import org.freebook.backend.user.AuthUserRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -20,6 +21,11 @@ public class ApplicationConfigs {
 
     private final AuthUserRepository authUserRepository;
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+    @Value("${security.password-hashing.max-concurrent:0}")
+    private int maxConcurrentHashing;
+
     @Bean
     public UserDetailsService userDetailsService() {
         return username -> authUserRepository.findByEmail(username)
@@ -28,7 +34,13 @@ public class ApplicationConfigs {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        PasswordEncoder bcrypt = new BCryptPasswordEncoder();
+        if (!virtualThreads) {
+            return bcrypt;
+        }
+        // leave carriers free for everything else
+        int permits = maxConcurrentHashing > 0 ? maxConcurrentHashing : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(bcrypt, permits);
     }
 
     @Bean
@@ -0,0 +1,48 @@
+package org.freebook.backend.configs;
+
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Lets at most {@code permits} threads hash passwords at once. Virtual threads share a carrier per
+ * core and are not preempted, so a burst of logins hashing on every carrier would stall all other
+ * requests. Waiting callers park instead of holding a carrier.
+ */
+class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final Semaphore permits;
+
+    BoundedPasswordEncoder(PasswordEncoder delegate, int permits) {
+        this.delegate = delegate;
+        this.permits = new Semaphore(permits);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        permits.acquireUninterruptibly();
+        try {
+            return delegate.encode(rawPassword);
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        permits.acquireUninterruptibly();
+        try {
+            return delegate.matches(rawPassword, encodedPassword);
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+}
@@ -0,0 +1,54 @@
+package org.freebook.backend.configs;
+
+
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Maps the {@code @Version} field of documents to HTTP entity tags, so clients can send
+ * {@code If-Match} and get a 412 instead of overwriting a concurrent change.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    // documents written before versioning have no version, they count as version 0
+    public static String of(Long version) {
+        return "\"" + (version == null ? 0 : version) + "\"";
+    }
+
+    /**
+     * @return null when any version matches (no header or {@code *})
+     * @throws IllegalArgumentException if the tag was not produced by {@link #of(Long)}
+     */
+    public static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new IllegalArgumentException("Invalid entity tag: " + ifMatch);
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid entity tag: " + ifMatch, e);
+        }
+    }
+
+    /**
+     * Criteria matching documents at the expected version.
+     */
+    public static Criteria versionIs(long expected) {
+        if (expected == 0) {
+            return new Criteria().orOperator(where("version").is(0L), where("version").exists(false));
+        }
+        return where("version").is(expected);
+    }
+
+}
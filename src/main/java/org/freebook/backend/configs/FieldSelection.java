@@ -0,0 +1,93 @@
+package org.freebook.backend.configs;
+
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sparse fieldset requested with a {@code fields=a,b,c} parameter. Applied as a Mongo projection
+ * so other fields are never read, and used to trim documents served from memory before serialization.
+ */
+public class FieldSelection {
+
+    private static final TypeReference<LinkedHashMap<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    private final Set<String> fields;
+
+    private FieldSelection(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * @param always fields every response needs, e.g. ids and cursor keys
+     * @return null when no selection was requested
+     * @throws IllegalArgumentException if a field is not a property of the document
+     */
+    public static FieldSelection parse(String fields, Class<?> document, String... always) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> known = new LinkedHashSet<>();
+        for (Field field : document.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                known.add(field.getName());
+            }
+        }
+        Set<String> selected = new LinkedHashSet<>(Arrays.asList(always));
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!known.contains(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+            selected.add(name);
+        }
+        return new FieldSelection(selected);
+    }
+
+    public FieldSelection with(String field) {
+        Set<String> selected = new LinkedHashSet<>(fields);
+        selected.add(field);
+        return new FieldSelection(selected);
+    }
+
+    public Query applyTo(Query query) {
+        fields.forEach(query.fields()::include);
+        return query;
+    }
+
+    /**
+     * Serializable copy of the document holding only the selected fields, plus any {@code extra} ones
+     * added by wrapping views.
+     */
+    public Map<String, Object> render(Object document, ObjectMapper objectMapper, String... extra) {
+        Map<String, Object> all = objectMapper.convertValue(document, MAP_TYPE);
+        Map<String, Object> selected = new LinkedHashMap<>();
+        for (String field : fields) {
+            if (all.containsKey(field)) {
+                selected.put(field, all.get(field));
+            }
+        }
+        for (String field : extra) {
+            if (all.containsKey(field)) {
+                selected.put(field, all.get(field));
+            }
+        }
+        return selected;
+    }
+
+    public List<Map<String, Object>> renderAll(List<?> documents, ObjectMapper objectMapper, String... extra) {
+        return documents.stream().map(document -> render(document, objectMapper, extra)).toList();
+    }
+
+}
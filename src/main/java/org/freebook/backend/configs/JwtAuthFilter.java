@@ -1,16 +1,18 @@
 package org.freebook.backend.configs;
 
 
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import org.freebook.backend.user.AuthUserCache;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -18,11 +20,22 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
 
+    public static final String PRINCIPAL_ATTRIBUTE = JwtPrincipal.class.getName();
+
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final AuthUserCache authUserCache;
+    private final Timer authTimer;
+
+    public JwtAuthFilter(JwtService jwtService, AuthUserCache authUserCache, MeterRegistry meterRegistry) {
+        this.jwtService = jwtService;
+        this.authUserCache = authUserCache;
+        this.authTimer = Timer.builder("freebook.auth.filter")
+                .description("Bearer token authentication, without the rest of the filter chain")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 
 
     @Override
@@ -33,23 +46,30 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
 
         final String authHeader = request.getHeader("Authorization");
-        final String username;
-        final String jwt;
 
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            filterChain.doFilter(request, response);
-            return;
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            authTimer.record(() -> authenticate(request, authHeader.substring(7)));
         }
+        filterChain.doFilter(request, response);
 
-        jwt = authHeader.substring(7);
-        username = jwtService.extractUsername(jwt);
+    }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+    private void authenticate(HttpServletRequest request, String token) {
+        final JwtPrincipal principal;
 
-            // check database
-            UserDetails user = userDetailsService.loadUserByUsername(username);
+        // signature and expiration are verified here, once per request
+        try {
+            principal = jwtService.parseToken(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return;
+        }
+
+        if (principal.getSubject() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+
+            // check cache, falls back to database
+            UserDetails user = authUserCache.loadUserByUsername(principal.getSubject());
 
-            if (jwtService.isTokenValid(jwt, user)) {
+            if (jwtService.isTokenValid(principal, user)) {
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         user,
                         null,
@@ -59,11 +79,10 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                         new WebAuthenticationDetailsSource().buildDetails(request)
                 );
                 SecurityContextHolder.getContext().setAuthentication(authentication);
+                request.setAttribute(PRINCIPAL_ATTRIBUTE, principal);
             }
 
         }
-        filterChain.doFilter(request, response);
-
     }
 
 }
@@ -0,0 +1,23 @@
+package org.freebook.backend.configs;
+
+
+import lombok.Value;
+
+import java.util.Date;
+
+/**
+ * Claims of a verified JWT, parsed once by {@link JwtAuthFilter} and
+ * injected into controller methods by {@link JwtPrincipalArgumentResolver}.
+ */
+@Value
+public class JwtPrincipal {
+
+    String subject;
+    Date issuedAt;
+    Date expiration;
+
+    public boolean isExpired() {
+        return expiration != null && expiration.before(new Date());
+    }
+
+}
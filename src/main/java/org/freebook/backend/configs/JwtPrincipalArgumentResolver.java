@@ -0,0 +1,38 @@
+package org.freebook.backend.configs;
+
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.MethodParameter;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Resolves {@link JwtPrincipal} controller arguments from the principal stored by {@link JwtAuthFilter}.
+ */
+public class JwtPrincipalArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return JwtPrincipal.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(
+            @NonNull MethodParameter parameter,
+            ModelAndViewContainer mavContainer,
+            @NonNull NativeWebRequest webRequest,
+            WebDataBinderFactory binderFactory
+    ) {
+        HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        Object principal = request == null ? null : request.getAttribute(JwtAuthFilter.PRINCIPAL_ATTRIBUTE);
+        if (principal == null) {
+            throw new AuthenticationCredentialsNotFoundException("No verified token on request");
+        }
+        return principal;
+    }
+
+}
@@ -1,10 +1,15 @@
 package org.freebook.backend.configs;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -17,13 +22,50 @@ import java.util.function.Function;
 
 
 @Service
+@RequiredArgsConstructor
 public class JwtService {
 
+    private final MeterRegistry meterRegistry;
+
     @Value("${security.jwt.secret-key}")
     private String secretKey;
     @Value("${security.jwt.expiration-time}")
     private long tokenLifespan;
 
+    // key and parser are immutable and thread safe, build them once
+    private Key signInKey;
+    private JwtParser jwtParser;
+    private Timer parseTimer;
+    private Timer signTimer;
+
+    @PostConstruct
+    void init() {
+        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
+        signInKey = Keys.hmacShaKeyFor(keyBytes);
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signInKey)
+                .build();
+        parseTimer = timer("parse");
+        signTimer = timer("sign");
+    }
+
+    private Timer timer(String operation) {
+        return Timer.builder("freebook.jwt")
+                .description("Token signing and verification")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Verifies the signature and expiration of the token and returns its claims as a principal.
+     * Throws {@link io.jsonwebtoken.JwtException} if the token is malformed, tampered or expired.
+     */
+    public JwtPrincipal parseToken(String token) {
+        Claims claims = extractAllClaims(token);
+        return new JwtPrincipal(claims.getSubject(), claims.getIssuedAt(), claims.getExpiration());
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -39,35 +81,31 @@ public class JwtService {
     }
 
     public String generateToken(UserDetails userDetails, Map<String, Object> extraClaims) {
-        return Jwts.builder()
-                .setClaims(extraClaims)
-                .setSubject(userDetails.getUsername())
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + tokenLifespan))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
-                .compact();
+        return signTimer.record(() -> {
+            long now = System.currentTimeMillis();
+            return Jwts.builder()
+                    .setClaims(extraClaims)
+                    .setSubject(userDetails.getUsername())
+                    .setIssuedAt(new Date(now))
+                    .setExpiration(new Date(now + tokenLifespan))
+                    .signWith(signInKey, SignatureAlgorithm.HS256)
+                    .compact();
+        });
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        String username = extractUsername(token);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+        return isTokenValid(parseToken(token), userDetails);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractClaim(token, Claims::getExpiration).before(new Date());
+    public boolean isTokenValid(JwtPrincipal principal, UserDetails userDetails) {
+        return principal.getSubject().equals(userDetails.getUsername()) && !principal.isExpired();
     }
 
+    // rejected tokens are timed too
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
+        return parseTimer.record(() -> jwtParser
                 .parseClaimsJws(token)
-                .getBody();
-    }
-
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+                .getBody());
     }
 
 }
@@ -0,0 +1,30 @@
+package org.freebook.backend.configs;
+
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sizes the driver's connection pool. With virtual threads the servlet container no longer caps
+ * how many requests run at once, so this pool becomes the bound on concurrent repository calls and
+ * requests past it wait up to {@code max-wait} for a connection.
+ */
+@Configuration
+public class MongoClientConfigs {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer connectionPool(
+            @Value("${freebook.mongo.max-pool-size:100}") int maxPoolSize,
+            @Value("${freebook.mongo.max-wait:2m}") Duration maxWait
+    ) {
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(maxPoolSize)
+                .maxWaitTime(maxWait.toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+}
@@ -0,0 +1,60 @@
+package org.freebook.backend.configs;
+
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+
+/**
+ * Ensures the indexes declared on documents with {@code @Indexed}/{@code @CompoundIndex} exist.
+ * Runs in the background once the application is ready so an unreachable database
+ * does not block startup.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class MongoIndexConfigs {
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+    private final TaskExecutor taskExecutor;
+
+    private Logger log = LoggerFactory.getLogger(MongoIndexConfigs.class);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        taskExecutor.execute(() -> {
+            for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+                if (!entity.isAnnotationPresent(Document.class)) {
+                    continue;
+                }
+                try {
+                    ensureIndexes(entity.getType());
+                } catch (RuntimeException e) {
+                    log.warn("Index creation failed for {}", entity.getCollection(), e);
+                }
+            }
+            log.info("Index creation completed");
+        });
+    }
+
+    /**
+     * Creates the declared indexes of one document type right away, for code that relies on them
+     * before the application is ready.
+     */
+    public void ensureIndexes(Class<?> type) {
+        var resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        IndexOperations indexOps = mongoTemplate.indexOps(type);
+        resolver.resolveIndexFor(type).forEach(indexOps::ensureIndex);
+    }
+
+}
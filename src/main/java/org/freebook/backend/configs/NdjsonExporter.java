@@ -0,0 +1,101 @@
+package org.freebook.backend.configs;
+
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Streams a whole collection as newline delimited JSON over a Mongo cursor. Only one driver batch
+ * is held in memory at a time, and blocking socket writes throttle how fast the cursor is consumed.
+ */
+@Component
+@RequiredArgsConstructor
+public class NdjsonExporter {
+
+    public static final String TRUNCATED_HEADER = "X-Truncated";
+
+    private static final int MAX_BATCH_SIZE = 10_000;
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${freebook.export.batch-size:500}")
+    private int defaultBatchSize;
+    @Value("${freebook.export.timeout:30m}")
+    private Duration timeout;
+    @Value("${freebook.export.max-items:1000}")
+    private int maxItems;
+
+    /**
+     * The first {@code max-items} documents as a plain JSON array, for clients that predate the export.
+     * A longer collection is cut off with {@code X-Truncated: true}, only the export returns all of it.
+     *
+     * @param finder reads a page of the collection
+     */
+    public <T> ResponseEntity<List<T>> firstItems(Function<Pageable, List<T>> finder) {
+        List<T> items = finder.apply(PageRequest.of(0, maxItems + 1));
+        if (items.size() <= maxItems) {
+            return ResponseEntity.ok(items);
+        }
+        return ResponseEntity.ok()
+                .header(TRUNCATED_HEADER, "true")
+                .body(items.subList(0, maxItems));
+    }
+
+    /**
+     * Must be called on the request's thread, the export gets its own async timeout.
+     *
+     * @param batchSize documents per driver batch and per flush, null for the configured default
+     */
+    public <T> StreamingResponseBody export(Class<T> type, Integer batchSize) {
+        int size = batchSize == null ? defaultBatchSize : Math.min(Math.max(batchSize, 1), MAX_BATCH_SIZE);
+        Query query = new Query().cursorBatchSize(size);
+        // flushing is done per batch below, not after every document
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        extendTimeout();
+        return out -> {
+            try (var stream = mongoTemplate.stream(query, type);
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                Iterator<T> documents = stream.iterator();
+                int written = 0;
+                while (documents.hasNext()) {
+                    writer.writeValue(generator, documents.next());
+                    generator.writeRaw('\n');
+                    if (++written % size == 0) {
+                        generator.flush();
+                    }
+                }
+            }
+        };
+    }
+
+    // the default async timeout suits short requests, an export can run far longer
+    private void extendTimeout() {
+        var attributes = (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
+        var asyncRequest = WebAsyncUtils.getAsyncManager(attributes.getRequest()).getAsyncWebRequest();
+        if (asyncRequest != null) {
+            asyncRequest.setTimeout(timeout.toMillis());
+        }
+    }
+
+}
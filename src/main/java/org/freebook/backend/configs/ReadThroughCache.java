@@ -0,0 +1,170 @@
+package org.freebook.backend.configs;
+
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Size bounded, TTL expiring read-through cache behind the document caches. Missing values are
+ * not cached. Invalidating a key racing with an in-flight load of it drops the load's result, so
+ * readers arriving after a successful write never see a value older than it.
+ * <p>
+ * Caffeine computes a missing entry while holding a lock of its map, a virtual thread blocking on
+ * Mongo in there pins its carrier thread. Loads therefore go through the async view: on virtual
+ * threads each load runs on its own virtual thread and the caller only waits on the future, on
+ * platform threads the load runs on the caller.
+ * <p>
+ * Entries can also be indexed by a second key, one entry per second key, so writes knowing only
+ * that key evict without scanning the cache. The index is bounded like the cache, its stale
+ * entries only ever point to keys already gone.
+ */
+public class ReadThroughCache<K, V> implements MeterBinder {
+
+    private final String name;
+    private final AsyncCache<K, V> loads;
+    private final Cache<K, V> cache;
+    private final Function<? super V, ?> secondKey;
+    private final Cache<Object, K> index;
+
+    public ReadThroughCache(String name, long maxSize, Duration ttl, boolean virtualThreads) {
+        this(name, maxSize, ttl, virtualThreads, null);
+    }
+
+    /**
+     * @param secondKey null to not index entries by a second key
+     */
+    public ReadThroughCache(
+            String name,
+            long maxSize,
+            Duration ttl,
+            boolean virtualThreads,
+            Function<? super V, ?> secondKey
+    ) {
+        this.name = name;
+        this.loads = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .executor(executor(virtualThreads))
+                .buildAsync();
+        this.cache = loads.synchronous();
+        this.secondKey = secondKey;
+        this.index = secondKey == null ? null : Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    private static Executor executor(boolean virtualThreads) {
+        return virtualThreads ? Executors.newVirtualThreadPerTaskExecutor() : Runnable::run;
+    }
+
+    /**
+     * @param loader returns null when there is no value
+     */
+    public Optional<V> get(K key, Function<K, V> loader) {
+        return Optional.ofNullable(join(loads.get(key, missing -> indexed(missing, loader.apply(missing)))));
+    }
+
+    /**
+     * Resolves the keys that have a value, loading every miss with a single call.
+     */
+    public Map<K, V> getAll(Collection<K> keys, Function<Set<? extends K>, Map<K, V>> loader) {
+        return cache.getAll(keys, missing -> {
+            Map<K, V> loaded = loader.apply(missing);
+            loaded.forEach(this::indexed);
+            return loaded;
+        });
+    }
+
+    /**
+     * The cached value without loading it on a miss.
+     */
+    public Optional<V> getIfPresent(K key) {
+        return Optional.ofNullable(cache.getIfPresent(key));
+    }
+
+    public void invalidate(K key) {
+        cache.invalidate(key);
+    }
+
+    /**
+     * Invalidates the entry indexed by the second key, if any.
+     */
+    public void invalidateBySecondKey(Object key) {
+        K indexed = index.getIfPresent(key);
+        if (indexed != null) {
+            index.invalidate(key);
+            cache.invalidate(indexed);
+        }
+    }
+
+    public void invalidateAllBySecondKey(Collection<?> keys) {
+        keys.forEach(this::invalidateBySecondKey);
+    }
+
+    /**
+     * Starts cold, for deletes: their events only carry the query, and they are rare.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+        if (index != null) {
+            index.invalidateAll();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, name);
+    }
+
+    /**
+     * Hit, miss and eviction counters since startup.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private V indexed(K key, V value) {
+        if (index != null && value != null) {
+            index.put(secondKey.apply(value), key);
+        }
+        return value;
+    }
+
+    // waits for a load, rethrowing what the loader threw
+    private static <T> T join(CompletableFuture<T> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+}
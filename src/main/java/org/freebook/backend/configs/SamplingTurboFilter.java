@@ -0,0 +1,42 @@
+package org.freebook.backend.configs;
+
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps one in {@code rate} of the INFO and lower events marked {@link #SAMPLED}, counted separately
+ * for each message format so every endpoint keeps its own share. Dropped events are rejected before
+ * their message is formatted. Warnings and errors are never sampled. Statements sharing a format
+ * share a counter, so each endpoint logs its own messages.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    public static final Marker SAMPLED = MarkerFactory.getMarker("SAMPLED");
+
+    // formats are literals, so the map stays as small as the set of log statements
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    private int rate = 100;
+
+    public void setRate(int rate) {
+        this.rate = Math.max(rate, 1);
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (marker != SAMPLED || format == null || level.isGreaterOrEqual(Level.WARN) || rate == 1) {
+            return FilterReply.NEUTRAL;
+        }
+        long seen = counters.computeIfAbsent(format, key -> new AtomicLong()).getAndIncrement();
+        return seen % rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+}
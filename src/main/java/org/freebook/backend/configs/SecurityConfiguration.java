@@ -2,6 +2,9 @@ package org.freebook.backend.configs;
 
 
 import lombok.RequiredArgsConstructor;
+import org.freebook.backend.user.UserRoles;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -24,6 +27,10 @@ public class SecurityConfiguration {
         http.csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth ->
                         auth.requestMatchers("/api/v1/auth/**").permitAll()
+                                // probes are unauthenticated, metrics and the rest need an admin
+                                // token even on the localhost management port
+                                .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+                                .requestMatchers(EndpointRequest.toAnyEndpoint()).hasAuthority(UserRoles.ADMIN.name())
                                 .anyRequest().authenticated()
                 )
                 .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
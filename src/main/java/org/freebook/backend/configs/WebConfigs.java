@@ -0,0 +1,24 @@
+package org.freebook.backend.configs;
+
+
+import lombok.RequiredArgsConstructor;
+import org.freebook.backend.user.CurrentUserArgumentResolver;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfigs implements WebMvcConfigurer {
+
+    private final CurrentUserArgumentResolver currentUserArgumentResolver;
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new JwtPrincipalArgumentResolver());
+        resolvers.add(currentUserArgumentResolver);
+    }
+
+}
@@ -0,0 +1,36 @@
+package org.freebook.backend.post;
+
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a cursor paginated listing, {@code nextCursor} is null on the last page.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> items;
+    private String nextCursor;
+    // only set by listings that keep a cheap total
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long total;
+
+    /**
+     * Builds a page from a query that fetched {@code limit + 1} posts, the extra post only signals more pages.
+     */
+    public static CursorPage<Post> of(List<Post> posts, int limit) {
+        if (posts.size() <= limit) {
+            return new CursorPage<>(posts, null, null);
+        }
+        List<Post> page = posts.subList(0, limit);
+        return new CursorPage<>(page, PostCursor.of(page.get(limit - 1)).encode(), null);
+    }
+
+}
@@ -0,0 +1,31 @@
+package org.freebook.backend.post;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Document(collection = "like")
+@CompoundIndex(name = "post_user", def = "{ 'postId': 1, 'userId': 1 }", unique = true)
+@CompoundIndex(name = "post_created", def = "{ 'postId': 1, 'createdAt': -1 }")
+@CompoundIndex(name = "user_created", def = "{ 'userId': 1, 'createdAt': -1 }")
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class Like {
+
+    @Id
+    private UUID id;
+    private UUID postId;
+    private UUID userId;
+    private LocalDateTime createdAt;
+
+}
@@ -0,0 +1,185 @@
+package org.freebook.backend.post;
+
+
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.freebook.backend.configs.MongoIndexConfigs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * One-off migration of the embedded {@code post.likedList} and {@code user.likedPosts} arrays into
+ * the {@code like} collection. Enable with {@code freebook.migrations.likes.enabled=true}.
+ * <p>
+ * The two arrays drifted apart under concurrent updates, so their union is migrated. Both are
+ * copied in full before either is dropped, then every post's {@code likeCount} is recounted from
+ * the collection. The unique (postId, userId) index skips likes inserted already, so an
+ * interrupted run can simply be restarted.
+ */
+@Component
+@ConditionalOnProperty(name = "freebook.migrations.likes.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class LikeMigrationRunner implements ApplicationRunner {
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoIndexConfigs mongoIndexConfigs;
+
+    @Value("${freebook.migrations.likes.batch-size:1000}")
+    private int batchSize;
+
+    private Logger log = LoggerFactory.getLogger(LikeMigrationRunner.class);
+
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("Migrating embedded likes");
+        // reruns rely on the unique (postId, userId) index, runners go before the background index creation
+        mongoIndexConfigs.ensureIndexes(Like.class);
+
+        long posts = copyPostLikes();
+        long users = copyUserLikes();
+        long counted = recount();
+
+        // by collection name, updates typed to Post or User would also bump the entity tag version
+        mongoTemplate.updateMulti(query(where("likedList").exists(true)), new Update().unset("likedList"), "post");
+        mongoTemplate.updateMulti(query(where("likedPosts").exists(true)), new Update().unset("likedPosts"), "user");
+        log.info("Embedded likes migrated, posts: {}, users: {}, liked posts: {}", posts, users, counted);
+    }
+
+    private long copyPostLikes() {
+        Query legacyPosts = query(where("likedList").exists(true));
+        legacyPosts.fields().include("id", "createdAt", "likedList");
+        legacyPosts.cursorBatchSize(batchSize);
+
+        long posts = 0;
+        try (var stream = mongoTemplate.stream(legacyPosts, LegacyPost.class, "post")) {
+            for (LegacyPost post : (Iterable<LegacyPost>) stream::iterator) {
+                List<UUID> likedList = post.getLikedList() == null ? List.of() : post.getLikedList();
+                for (int from = 0; from < likedList.size(); from += batchSize) {
+                    List<Like> likes = new ArrayList<>();
+                    for (UUID userId : likedList.subList(from, Math.min(from + batchSize, likedList.size()))) {
+                        likes.add(like(post, userId));
+                    }
+                    insert(likes);
+                }
+                posts++;
+            }
+        }
+        return posts;
+    }
+
+    // likes only the user side kept, of posts that still exist
+    private long copyUserLikes() {
+        Query legacyUsers = query(where("likedPosts").exists(true));
+        legacyUsers.fields().include("id", "likedPosts");
+        legacyUsers.cursorBatchSize(batchSize);
+
+        long users = 0;
+        try (var stream = mongoTemplate.stream(legacyUsers, LegacyUser.class, "user")) {
+            for (LegacyUser user : (Iterable<LegacyUser>) stream::iterator) {
+                List<UUID> likedPosts = user.getLikedPosts() == null ? List.of() : user.getLikedPosts();
+                for (int from = 0; from < likedPosts.size(); from += batchSize) {
+                    Query existing = query(where("_id").in(likedPosts.subList(from, Math.min(from + batchSize, likedPosts.size()))));
+                    existing.fields().include("id", "createdAt");
+                    List<Like> likes = new ArrayList<>();
+                    for (LegacyPost post : mongoTemplate.find(existing, LegacyPost.class, "post")) {
+                        likes.add(like(post, user.getId()));
+                    }
+                    insert(likes);
+                }
+                users++;
+            }
+        }
+        return users;
+    }
+
+    private static Like like(LegacyPost post, UUID userId) {
+        return Like.builder()
+                .id(UUID.randomUUID())
+                .postId(post.getId())
+                .userId(userId)
+                .createdAt(post.getCreatedAt())
+                .build();
+    }
+
+    private void insert(List<Like> likes) {
+        if (likes.isEmpty()) {
+            return;
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Like.class)
+                    .insert(likes)
+                    .execute();
+        } catch (BulkOperationException e) {
+            // already inserted from the other side or by an interrupted run, the rest of the batch still is
+            boolean onlyDuplicates = e.getErrors().stream().allMatch(error -> error.getCode() == 11000);
+            if (!onlyDuplicates) {
+                throw e;
+            }
+        }
+    }
+
+    // overwrites likeCount from the like collection, legacy posts without likes go to 0
+    private long recount() {
+        mongoTemplate.updateMulti(query(where("likedList").exists(true)), new Update().set("likeCount", 0L), "post");
+        var aggregation = Aggregation.newAggregation(
+                Aggregation.group("postId").count().as("count")
+        );
+        long counted = 0;
+        try (var counts = mongoTemplate.aggregateStream(aggregation, Like.class, PostLikeCount.class)) {
+            BulkOperations bulk = null;
+            for (PostLikeCount count : (Iterable<PostLikeCount>) counts::iterator) {
+                if (bulk == null) {
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, "post");
+                }
+                bulk.updateOne(query(where("_id").is(count.getId())), new Update().set("likeCount", count.getCount()));
+                if (++counted % batchSize == 0) {
+                    bulk.execute();
+                    bulk = null;
+                }
+            }
+            if (bulk != null) {
+                bulk.execute();
+            }
+        }
+        return counted;
+    }
+
+    @Data
+    static class LegacyPost {
+        private UUID id;
+        private LocalDateTime createdAt;
+        private List<UUID> likedList;
+    }
+
+    @Data
+    static class LegacyUser {
+        private UUID id;
+        private List<UUID> likedPosts;
+    }
+
+    @Data
+    static class PostLikeCount {
+        private UUID id;
+        private long count;
+    }
+
+}
@@ -0,0 +1,24 @@
+package org.freebook.backend.post;
+
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface LikeRepository extends MongoRepository<Like, UUID> {
+
+    long deleteByPostIdAndUserId(UUID postId, UUID userId);
+
+    long deleteByPostId(UUID postId);
+
+    long countByPostId(UUID postId);
+
+    Slice<Like> findByPostIdOrderByCreatedAtDesc(UUID postId, Pageable pageable);
+
+    Slice<Like> findByUserIdOrderByCreatedAtDesc(UUID userId, Pageable pageable);
+
+}
@@ -0,0 +1,358 @@
+package org.freebook.backend.post;
+
+
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Optional write-behind mode for likes. Like and unlike calls only record the user's latest intent
+ * per (post, user) pair, and a background thread flushes them every few milliseconds or after
+ * enough events: a bulk insert of likes, one delete per post for unlikes, and a bulk of counter
+ * updates. A user toggling a like between flushes costs no write at all, and a viral post gets one
+ * counter update per flush instead of one per request.
+ * <p>
+ * Counters move by what was actually inserted and deleted, so a like already written or removed
+ * outside the buffer is not counted twice, and a failed counter update is retried alone.
+ * <p>
+ * Offers never read the like collection. Repeated likes and unlikes conflict against the buffered
+ * intent only, a repeat of a like already written is accepted and then rejected by the unique
+ * (postId, userId) index at flush, uncounted. Entries being flushed stay buffered until their write
+ * is done. {@code max-pending} is a soft bound, reaching it wakes the flusher instead of making
+ * the request wait for a flush. Like counts and like listings lag behind by at most one flush.
+ */
+@Component
+public class LikeWriteBuffer implements MeterBinder {
+
+    private final MongoTemplate mongoTemplate;
+    private final PostCache postCache;
+    private final RecentPostWindow recentPostWindow;
+    private final PostCleanupWorker postCleanupWorker;
+
+    private final boolean enabled;
+    private final int maxPending;
+    private final int flushEvery;
+
+    // a concurrent map already spreads writers over independently locked bins
+    private final Map<LikeKey, Pending> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger events = new AtomicInteger();
+    // a flush is queued on the flusher, later requests ride on it
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // like count changes of written likes whose counter update has not succeeded yet, guarded by flushLock
+    private final Map<UUID, Long> unappliedCounts = new HashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    private Logger log = LoggerFactory.getLogger(LikeWriteBuffer.class);
+
+    public LikeWriteBuffer(
+            MongoTemplate mongoTemplate,
+            PostCache postCache,
+            RecentPostWindow recentPostWindow,
+            PostCleanupWorker postCleanupWorker,
+            @Value("${freebook.like-buffer.enabled:false}") boolean enabled,
+            @Value("${freebook.like-buffer.max-pending:100000}") int maxPending,
+            @Value("${freebook.like-buffer.flush-every:1000}") int flushEvery,
+            @Value("${freebook.like-buffer.flush-interval:50ms}") Duration flushInterval
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.postCache = postCache;
+        this.recentPostWindow = recentPostWindow;
+        this.postCleanupWorker = postCleanupWorker;
+        this.enabled = enabled;
+        this.maxPending = maxPending;
+        this.flushEvery = flushEvery;
+        if (enabled) {
+            // own thread, the shared scheduler runs slow jobs that would delay flushes
+            this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "like-buffer-flush");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = flushInterval.toMillis();
+            flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records that the user likes or no longer likes the post.
+     *
+     * @return false if the user's buffered intent is already in that state
+     */
+    public boolean offer(UUID postId, UUID userId, boolean liked) {
+        LikeKey key = new LikeKey(postId, userId);
+        while (true) {
+            Pending current = pending.get(key);
+            if (current == null) {
+                if (pending.size() >= maxPending) {
+                    requestFlush();
+                }
+                if (pending.putIfAbsent(key, new Pending(liked)) == null) {
+                    countEvent();
+                    return true;
+                }
+            } else {
+                if (current.liked == liked) {
+                    return false;
+                }
+                if (pending.replace(key, current, new Pending(liked))) {
+                    countEvent();
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Buffered (post, user) pairs not yet written.
+     */
+    public int pendingSize() {
+        return pending.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("freebook.like.buffer.pending", this, LikeWriteBuffer::pendingSize)
+                .description("Buffered likes and unlikes not yet written")
+                .register(registry);
+    }
+
+    private void countEvent() {
+        if (events.incrementAndGet() >= flushEvery) {
+            events.set(0);
+            requestFlush();
+        }
+    }
+
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    private void flushQuietly() {
+        flushRequested.set(false);
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Like flush failed, retrying on next flush", e);
+        }
+    }
+
+    public void flush() {
+        flushLock.lock();
+        try {
+            // entries stay buffered while written, an offer made meanwhile replaces them
+            Map<LikeKey, Pending> batch = new HashMap<>(pending);
+            if (batch.isEmpty() && unappliedCounts.isEmpty()) {
+                return;
+            }
+
+            Set<LikeKey> failed = new HashSet<>();
+            RuntimeException failure = writeLikes(batch, failed);
+            // failed entries stay for the next flush, replaced ones are written by it
+            batch.forEach((key, written) -> {
+                if (!failed.contains(key)) {
+                    pending.remove(key, written);
+                }
+            });
+            applyCounts();
+            if (failure != null) {
+                throw failure;
+            }
+            log.debug("Flushed likes: {}", batch.size());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the batch to the like collection and records in {@link #unappliedCounts} what was
+     * actually inserted and deleted, a like already written or already gone outside the buffer
+     * was counted by whoever wrote it.
+     *
+     * @param failed receives the entries that were not written
+     * @return the first failure, null if every entry was written
+     */
+    private RuntimeException writeLikes(Map<LikeKey, Pending> batch, Set<LikeKey> failed) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        RuntimeException failure = null;
+
+        List<LikeKey> inserts = new ArrayList<>();
+        Map<UUID, List<LikeKey>> removesByPost = new HashMap<>();
+        batch.forEach((key, written) -> {
+            if (written.liked) {
+                inserts.add(key);
+            } else {
+                removesByPost.computeIfAbsent(key.postId(), postId -> new ArrayList<>()).add(key);
+            }
+        });
+
+        if (!inserts.isEmpty()) {
+            BulkOperations likes = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Like.class);
+            inserts.forEach(key -> likes.insert(Like.builder()
+                    .id(UUID.randomUUID())
+                    .postId(key.postId())
+                    .userId(key.userId())
+                    .createdAt(now)
+                    .build()));
+            Set<Integer> notInserted = new HashSet<>();
+            try {
+                likes.execute();
+            } catch (BulkOperationException e) {
+                // unordered, every other insert went through
+                for (BulkWriteError error : e.getErrors()) {
+                    notInserted.add(error.getIndex());
+                    // a duplicate is a like already written outside the buffer, done and not ours to count
+                    if (error.getCode() != 11000) {
+                        failed.add(inserts.get(error.getIndex()));
+                        failure = failure == null ? e : failure;
+                    }
+                }
+            }
+            for (int i = 0; i < inserts.size(); i++) {
+                if (!notInserted.contains(i)) {
+                    unappliedCounts.merge(inserts.get(i).postId(), 1L, Long::sum);
+                }
+            }
+        }
+
+        // one delete per post, its count says how many of the likes were still there
+        for (Map.Entry<UUID, List<LikeKey>> removes : removesByPost.entrySet()) {
+            List<UUID> userIds = removes.getValue().stream().map(LikeKey::userId).toList();
+            try {
+                long deleted = mongoTemplate.remove(
+                        query(where("postId").is(removes.getKey()).and("userId").in(userIds)), Like.class
+                ).getDeletedCount();
+                unappliedCounts.merge(removes.getKey(), -deleted, Long::sum);
+            } catch (RuntimeException e) {
+                failed.addAll(removes.getValue());
+                failure = failure == null ? e : failure;
+            }
+        }
+        return failure;
+    }
+
+    /**
+     * Applies the recorded counter deltas, a delta is dropped only once its own update succeeded,
+     * so a failed flush retries exactly the posts it did not count.
+     */
+    private void applyCounts() {
+        unappliedCounts.values().removeIf(delta -> delta == 0);
+        if (unappliedCounts.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<UUID, Long>> deltas = List.copyOf(unappliedCounts.entrySet());
+        BulkOperations counters = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class);
+        deltas.forEach(delta -> counters.updateOne(
+                query(where("id").is(delta.getKey())), new Update().inc("likeCount", delta.getValue())
+        ));
+        BulkWriteResult result;
+        Set<Integer> notApplied = new HashSet<>();
+        BulkOperationException failure = null;
+        try {
+            result = counters.execute();
+        } catch (BulkOperationException e) {
+            result = e.getResult();
+            e.getErrors().forEach(error -> notApplied.add(error.getIndex()));
+            failure = e;
+        }
+
+        Map<UUID, Long> applied = new HashMap<>();
+        for (int i = 0; i < deltas.size(); i++) {
+            if (!notApplied.contains(i)) {
+                applied.put(deltas.get(i).getKey(), deltas.get(i).getValue());
+                unappliedCounts.remove(deltas.get(i).getKey());
+            }
+        }
+        if (result.getMatchedCount() < applied.size()) {
+            cleanUpDeleted(applied.keySet());
+        }
+        applied.forEach((postId, delta) -> {
+            postCache.evict(postId);
+            recentPostWindow.update(postId, held -> held.toBuilder().likeCount(held.getLikeCount() + delta).build());
+        });
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // likes written for posts deleted since they were buffered
+    private void cleanUpDeleted(Set<UUID> postIds) {
+        Query existing = query(where("id").in(postIds));
+        existing.fields().include("id");
+        Set<UUID> deleted = new HashSet<>(postIds);
+        mongoTemplate.find(existing, Post.class).forEach(post -> deleted.remove(post.getId()));
+        deleted.forEach(postCleanupWorker::enqueue);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+            flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Dropping {} buffered likes on shutdown", pending.size(), e);
+        }
+    }
+
+    private record LikeKey(UUID postId, UUID userId) {
+    }
+
+    // compared by identity, the map's conditional replace and remove must not confuse two equal intents
+    private static final class Pending {
+
+        private final boolean liked;
+
+        private Pending(boolean liked) {
+            this.liked = liked;
+        }
+
+    }
+
+}
@@ -8,6 +8,9 @@ import lombok.NoArgsConstructor;
 import org.freebook.backend.user.User;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -15,7 +18,10 @@ import java.util.List;
 import java.util.UUID;
 
 @Document(collection = "post")
-@Builder
+@CompoundIndex(name = "created_id", def = "{ 'createdAt': -1, '_id': -1 }")
+@CompoundIndex(name = "tags_created", def = "{ 'tags': 1, 'createdAt': -1 }")
+@CompoundIndex(name = "creator_created_id", def = "{ 'creatorId': 1, 'createdAt': -1, '_id': -1 }")
+@Builder(toBuilder = true)
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -23,7 +29,9 @@ public class Post {
 
     @Id
     private UUID id;
+    @TextIndexed
     private String caption;
+    @TextIndexed
     private List<String> tags;
     private String imgUrl;
     private String imgId;
@@ -31,6 +39,8 @@ public class Post {
     @CreatedDate
     private LocalDateTime createdAt;
     private UUID creatorId;
-    private List<UUID> likedList;
+    private long likeCount;
+    @Version
+    private Long version;
 
 }
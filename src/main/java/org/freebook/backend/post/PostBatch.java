@@ -0,0 +1,44 @@
+package org.freebook.backend.post;
+
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Posts resolved from a list of ids, in the requested order, with the ids that no longer exist.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostBatch<T> {
+
+    public static final int MAX_SIZE = 100;
+
+    private List<T> items;
+    private List<UUID> missing;
+    // only set by paginated listings
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
+    public static PostBatch<Post> of(List<UUID> ids, Map<UUID, Post> found, String nextCursor) {
+        List<Post> items = new ArrayList<>(ids.size());
+        List<UUID> missing = new ArrayList<>();
+        for (UUID id : ids) {
+            Post post = found.get(id);
+            if (post == null) {
+                missing.add(id);
+            } else {
+                items.add(post);
+            }
+        }
+        return new PostBatch<>(items, missing, nextCursor);
+    }
+
+}
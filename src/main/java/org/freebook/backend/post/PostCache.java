@@ -0,0 +1,77 @@
+package org.freebook.backend.post;
+
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.freebook.backend.configs.ReadThroughCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Cache of single posts, so the few viral posts are served from memory. Entries are evicted when
+ * a {@link Post} is saved through the repository, writes that bypass it (atomic updates, deletes)
+ * must call {@link #evict(UUID)} after writing.
+ */
+@Component
+public class PostCache extends AbstractMongoEventListener<Post> implements MeterBinder {
+
+    private final PostRepository postRepository;
+    private final ReadThroughCache<UUID, Post> cache;
+
+    public PostCache(
+            PostRepository postRepository,
+            @Value("${freebook.post-cache.max-size:10000}") long maxSize,
+            @Value("${freebook.post-cache.ttl:1m}") Duration ttl,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        this.postRepository = postRepository;
+        this.cache = new ReadThroughCache<>("posts", maxSize, ttl, virtualThreads);
+    }
+
+    public Optional<Post> findById(UUID postId) {
+        return cache.get(postId, key -> postRepository.findById(key).orElse(null));
+    }
+
+    /**
+     * The cached post without loading it on a miss.
+     */
+    public Optional<Post> getIfPresent(UUID postId) {
+        return cache.getIfPresent(postId);
+    }
+
+    /**
+     * Resolves the posts that exist among the ids, loading every cache miss with a single {@code $in} query.
+     */
+    public Map<UUID, Post> findAllById(Collection<UUID> postIds) {
+        return cache.getAll(postIds, missing -> {
+            Map<UUID, Post> loaded = new HashMap<>();
+            postRepository.findAllById(List.copyOf(missing)).forEach(post -> loaded.put(post.getId(), post));
+            return loaded;
+        });
+    }
+
+    public void evict(UUID postId) {
+        cache.invalidate(postId);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        cache.bindTo(registry);
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Post> event) {
+        cache.invalidate(event.getSource().getId());
+    }
+
+}
@@ -0,0 +1,36 @@
+package org.freebook.backend.post;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Durable queue entry for the references a deleted post leaves behind, processed by {@link PostCleanupWorker}.
+ */
+@Document(collection = "post_cleanup")
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostCleanupTask {
+
+    // the deleted post id, enqueueing twice is a no-op
+    @Id
+    private UUID postId;
+    private LocalDateTime createdAt;
+    // lease of the instance working on it, expired leases are picked up again
+    @Indexed
+    private LocalDateTime claimedUntil;
+    private int attempts;
+    // set once the task ran out of attempts, dead-lettered tasks are kept for inspection and never claimed again
+    private LocalDateTime failedAt;
+
+}
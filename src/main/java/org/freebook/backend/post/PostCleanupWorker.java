@@ -0,0 +1,247 @@
+package org.freebook.backend.post;
+
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import org.freebook.backend.user.UserProfileCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Removes what a deleted post leaves behind, its likes and its id in users' saved posts, off the
+ * request path. Deletes enqueue into the {@code post_cleanup} collection so pending work survives
+ * restarts, and each run claims a batch of posts with a lease, so several instances can share the queue.
+ * Work is done in bounded chunks with a pause in between to keep the load on the database flat,
+ * on a thread of its own so a backlog does not hold up the shared scheduler. The thread starts once
+ * the application is ready. A task claimed more than {@code max-attempts} times is dead-lettered
+ * instead of being retried forever.
+ */
+@Component
+public class PostCleanupWorker implements MeterBinder {
+
+    private final MongoTemplate mongoTemplate;
+    private final UserProfileCache userProfileCache;
+
+    private final int batchSize;
+    private final int chunkSize;
+    private final Duration throttle;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration interval;
+
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private final ScheduledExecutorService runner;
+
+    private Logger log = LoggerFactory.getLogger(PostCleanupWorker.class);
+
+    public PostCleanupWorker(
+            MongoTemplate mongoTemplate,
+            UserProfileCache userProfileCache,
+            @Value("${freebook.post-cleanup.batch-size:20}") int batchSize,
+            @Value("${freebook.post-cleanup.chunk-size:500}") int chunkSize,
+            @Value("${freebook.post-cleanup.throttle:50ms}") Duration throttle,
+            @Value("${freebook.post-cleanup.lease:5m}") Duration lease,
+            @Value("${freebook.post-cleanup.max-attempts:5}") int maxAttempts,
+            @Value("${freebook.post-cleanup.interval:PT5S}") Duration interval
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.userProfileCache = userProfileCache;
+        this.batchSize = batchSize;
+        this.chunkSize = chunkSize;
+        this.throttle = throttle;
+        this.lease = lease;
+        this.maxAttempts = maxAttempts;
+        this.interval = interval;
+        this.runner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "post-cleanup");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        runner.scheduleWithFixedDelay(this::run, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void enqueue(UUID postId) {
+        try {
+            mongoTemplate.insert(PostCleanupTask.builder()
+                    .postId(postId)
+                    .createdAt(LocalDateTime.now())
+                    .attempts(0)
+                    .build());
+            backlog.incrementAndGet();
+        } catch (DuplicateKeyException e) {
+            // already queued
+        }
+    }
+
+    /**
+     * Pending deletions as of the last run, including ones enqueued since.
+     */
+    public long backlog() {
+        return backlog.get();
+    }
+
+    /**
+     * Deletions cleaned up by this instance since startup.
+     */
+    public long processed() {
+        return processed.get();
+    }
+
+    /**
+     * Deletions that ran out of attempts, as of the last run.
+     */
+    public long deadLettered() {
+        return deadLettered.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("freebook.post.cleanup.backlog", this, PostCleanupWorker::backlog)
+                .description("Deleted posts waiting for cleanup")
+                .register(registry);
+        Gauge.builder("freebook.post.cleanup.processed", this, PostCleanupWorker::processed)
+                .description("Deleted posts cleaned up by this instance")
+                .register(registry);
+        Gauge.builder("freebook.post.cleanup.dead-lettered", this, PostCleanupWorker::deadLettered)
+                .description("Deleted posts whose cleanup ran out of attempts")
+                .register(registry);
+    }
+
+    public void run() {
+        try {
+            List<UUID> postIds = claim();
+            if (!postIds.isEmpty()) {
+                removeLikes(postIds);
+                removeSavedReferences(postIds);
+                mongoTemplate.remove(query(where("postId").in(postIds)), PostCleanupTask.class);
+                processed.addAndGet(postIds.size());
+                log.info("Cleaned up deleted posts: {}", postIds.size());
+            }
+            backlog.set(mongoTemplate.count(query(where("failedAt").is(null)), PostCleanupTask.class));
+            deadLettered.set(mongoTemplate.count(query(where("failedAt").ne(null)), PostCleanupTask.class));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // claimed tasks are retried once their lease expires
+            log.warn("Post cleanup failed", e);
+        }
+    }
+
+    private List<UUID> claim() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        Query claimable = query(where("failedAt").is(null).orOperator(
+                where("claimedUntil").exists(false),
+                where("claimedUntil").is(null),
+                where("claimedUntil").lt(now)
+        ));
+        Update claim = new Update().set("claimedUntil", now.plus(lease)).inc("attempts", 1);
+        List<UUID> postIds = new ArrayList<>();
+        for (int i = 0; i < batchSize; i++) {
+            PostCleanupTask task = mongoTemplate.findAndModify(
+                    claimable, claim, FindAndModifyOptions.options().returnNew(true), PostCleanupTask.class
+            );
+            if (task == null) {
+                break;
+            }
+            if (task.getAttempts() > maxAttempts) {
+                deadLetter(task, now);
+            } else {
+                postIds.add(task.getPostId());
+            }
+        }
+        return postIds;
+    }
+
+    // every earlier attempt failed or was cut off, keep the task for inspection instead of retrying it
+    private void deadLetter(PostCleanupTask task, LocalDateTime now) {
+        mongoTemplate.updateFirst(
+                query(where("postId").is(task.getPostId())),
+                new Update().set("failedAt", now).unset("claimedUntil"),
+                PostCleanupTask.class
+        );
+        log.error("Post cleanup gave up after {} attempts, post: {}", maxAttempts, task.getPostId());
+    }
+
+    private void removeLikes(List<UUID> postIds) throws InterruptedException {
+        while (true) {
+            Query chunk = query(where("postId").in(postIds)).limit(chunkSize);
+            chunk.fields().include("id");
+            List<UUID> likeIds = mongoTemplate.find(chunk, Like.class).stream().map(Like::getId).toList();
+            if (likeIds.isEmpty()) {
+                return;
+            }
+            mongoTemplate.remove(query(where("id").in(likeIds)), Like.class);
+            Thread.sleep(throttle.toMillis());
+        }
+    }
+
+    private void removeSavedReferences(List<UUID> postIds) throws InterruptedException {
+        Set<UUID> touched = new HashSet<>();
+        while (true) {
+            Query chunk = query(where("savedPosts").in(postIds)).limit(chunkSize);
+            chunk.fields().include("id");
+            List<UUID> userIds = mongoTemplate.find(chunk, UserId.class, "user").stream().map(UserId::getId).toList();
+            if (userIds.isEmpty()) {
+                break;
+            }
+            // by collection name, an update typed to User would also bump the entity tag version
+            mongoTemplate.updateMulti(
+                    query(where("_id").in(userIds)),
+                    new Update().pullAll("savedPosts", postIds.toArray()),
+                    "user"
+            );
+            touched.addAll(userIds);
+            Thread.sleep(throttle.toMillis());
+        }
+        if (!touched.isEmpty()) {
+            userProfileCache.evictByUserIds(touched);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // an interrupted run leaves its tasks claimed, they are retried once the lease expires
+        runner.shutdownNow();
+    }
+
+    // reads only ids without mapping whole users
+    @Data
+    static class UserId {
+        private UUID id;
+    }
+
+}
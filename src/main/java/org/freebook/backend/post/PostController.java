@@ -1,20 +1,38 @@
 package org.freebook.backend.post;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
-import org.freebook.backend.configs.JwtService;
+import org.freebook.backend.configs.ETags;
+import org.freebook.backend.configs.FieldSelection;
+import org.freebook.backend.configs.NdjsonExporter;
+import org.freebook.backend.user.AuthorSummaryCache;
+import org.freebook.backend.user.CurrentUser;
 import org.freebook.backend.user.User;
+import org.freebook.backend.user.UserProfileCache;
 import org.freebook.backend.user.UserRepository;
-import org.springframework.data.domain.Page;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
-import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import static org.freebook.backend.configs.SamplingTurboFilter.SAMPLED;
 
 @RestController
 @RequestMapping("api/v1/posts")
@@ -22,66 +40,323 @@ import java.util.logging.Logger;
 public class PostController {
 
     private final PostRepository postRepository;
+    private final LikeRepository likeRepository;
+    private final PostCache postCache;
+    private final RecentPostWindow recentPostWindow;
+    private final AuthorSummaryCache authorSummaryCache;
+    private final PostCleanupWorker postCleanupWorker;
+    private final LikeWriteBuffer likeWriteBuffer;
+    private final TrendingPosts trendingPosts;
+    private final TagIndex tagIndex;
     private final UserRepository userRepository;
-    private final JwtService jwtService;
+    private final UserProfileCache userProfileCache;
+    private final NdjsonExporter ndjsonExporter;
+    private final ObjectMapper objectMapper;
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final String EMBED_AUTHOR = "author";
 
-    private Logger log = Logger.getLogger(PostController.class.getName());
+    private Logger log = LoggerFactory.getLogger(PostController.class);
 
     @GetMapping("")
     public ResponseEntity<List<Post>> getAllPosts() {
-        return ResponseEntity.ok(postRepository.findAll());
+        // cut off at max-items, the ndjson export streams the full collection
+        return ndjsonExporter.firstItems(postRepository::findAllBy);
+    }
+
+    @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportPosts(@RequestParam(required = false) Integer batchSize) {
+        log.info("Exporting all posts");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(ndjsonExporter.export(Post.class, batchSize));
     }
 
     @GetMapping("/{postId}")
-    public ResponseEntity getPostById(@PathVariable UUID postId) {
-        log.info("Get post by id: " + postId);
-        var postOptional = postRepository.findById(postId);
+    public ResponseEntity getPostById(@PathVariable UUID postId, @RequestParam(required = false) String fields) {
+        log.info(SAMPLED, "Get post by id: {}", postId);
+        FieldSelection parsed;
+        try {
+            parsed = postFields(fields, null);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid fields: {}", fields);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid fields!");
+        }
+
+        if (parsed != null) {
+            // the version is read for the entity tag, it is only rendered when selected
+            FieldSelection projection = parsed.with("version");
+            // a cached copy beats a projected read, otherwise read only the selected fields
+            Post post = postCache.getIfPresent(postId)
+                    .orElseGet(() -> postRepository.findProjectedById(postId, projection));
+            if (post == null) {
+                log.warn("Post not found: {}", postId);
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Post not found!");
+            }
+            log.info(SAMPLED, "Get post by id completed");
+            return ResponseEntity.ok().eTag(ETags.of(post.getVersion())).body(parsed.render(post, objectMapper));
+        }
+
+        var postOptional = postCache.findById(postId);
         if (postOptional.isEmpty()) {
-            log.warning("Post not found: " + postId);
+            log.warn("Post not found: {}", postId);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Post not found!");
         }
-        log.info("Get post by id completed");
-        return ResponseEntity.ok(postOptional.get());
+        log.info(SAMPLED, "Get post by id completed");
+        return ResponseEntity.ok().eTag(ETags.of(postOptional.get().getVersion())).body(postOptional.get());
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity getPostsById(@RequestBody List<UUID> postIds, @RequestParam(required = false) String fields) {
+        log.info(SAMPLED, "Get posts by id, count: {}", postIds.size());
+        FieldSelection selection;
+        try {
+            selection = postFields(fields, null);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid fields: {}", fields);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid fields!");
+        }
+        if (postIds.size() > PostBatch.MAX_SIZE) {
+            log.warn("Too many ids: {}", postIds.size());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Too many ids!");
+        }
+        if (postIds.stream().anyMatch(Objects::isNull)) {
+            log.warn("Null id in batch");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid ids!");
+        }
+        var posts = postCache.findAllById(new LinkedHashSet<>(postIds));
+        PostBatch<Post> batch = PostBatch.of(postIds, posts, null);
+        log.info(SAMPLED, "Get posts by id completed");
+        if (selection == null) {
+            return ResponseEntity.ok(batch);
+        }
+        // cached posts are whole, trimmed to the selection before serialization
+        return ResponseEntity.ok(new PostBatch<>(
+                selection.renderAll(batch.getItems(), objectMapper), batch.getMissing(), null
+        ));
     }
 
     @GetMapping("/search")
-    public ResponseEntity searchPost(@RequestParam String query) {
-        log.info("Search post: " + query);
-        return ResponseEntity.ok(postRepository.findPostsBySearchQuery(query));
+    public ResponseEntity searchPost(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String embed,
+            @RequestParam(required = false) String fields
+    ) {
+        log.info(SAMPLED, "Search post: {}, page: {} limit: {}", query, page, limit);
+        FieldSelection selection;
+        try {
+            selection = postFields(fields, embed);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid fields: {}", fields);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid fields!");
+        }
+        limit = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        var posts = postRepository.searchText(query, Math.max(page, 0), limit, selection);
+        return ResponseEntity.ok(present(posts, embed, selection));
+    }
+
+    @GetMapping("/search/tags")
+    public ResponseEntity searchPostByTag(
+            @RequestParam String tag,
+            @RequestParam(defaultValue = "false") boolean prefix,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String embed,
+            @RequestParam(required = false) String fields
+    ) {
+        log.info(SAMPLED, "Search post by tag: {}, prefix: {}, page: {} limit: {}", tag, prefix, page, limit);
+        FieldSelection selection;
+        try {
+            selection = postFields(fields, embed);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid fields: {}", fields);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid fields!");
+        }
+        limit = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        var posts = postRepository.findByTag(tag, prefix, Math.max(page, 0), limit, selection);
+        return ResponseEntity.ok(present(posts, embed, selection));
     }
 
     @GetMapping("/creator/{creatorId}")
-    public ResponseEntity searchPostByCreator(@PathVariable UUID creatorId) {
-        log.info("Search post by creator id: " + creatorId);
-        var postList = postRepository.getByCreatorId(creatorId);
-        if (postList.isEmpty()) {
-            log.warning("No posts for the user: " + creatorId + " & request completed");
-            return ResponseEntity.ok(new ArrayList<>());
-        }
-        log.info("Request completed");
-        return ResponseEntity.ok(postList.get());
+    public ResponseEntity searchPostByCreator(
+            @PathVariable UUID creatorId,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String embed,
+            @RequestParam(required = false) String fields
+    ) {
+        log.info(SAMPLED, "Search post by creator id: {}, cursor: {} limit: {}", creatorId, cursor, limit);
+        FieldSelection selection;
+        try {
+            selection = postFields(fields, embed);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid fields: {}", fields);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid fields!");
+        }
+
+        PostCursor after;
+        try {
+            after = cursor == null ? null : PostCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid cursor: {}", cursor);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid cursor!");
+        }
+        limit = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        List<Post> posts = postRepository.findNewestByCreator(creatorId, after, limit + 1, selection);
+        CursorPage<Post> timeline = CursorPage.of(posts, limit);
+        timeline.setTotal(userRepository.getPostCount(creatorId));
+        log.info(SAMPLED, "Search post by creator id completed");
+        return ResponseEntity.ok(present(timeline, embed, selection));
     }
 
     @GetMapping("/recent")
-    public ResponseEntity getRecentPosts(@RequestParam int page, @RequestParam int limit) {
-        log.info("Get recent posts, page: " + page + " limit: " + limit);
-        PageRequest pageRequest = PageRequest.of(page, limit);
-        Page<Post> posts = postRepository.findAllByOrderByCreatedAtDesc(pageRequest);
-        log.info("Request completed");
-        return ResponseEntity.ok(posts.getContent());
+    public ResponseEntity getRecentPosts(
+            @RequestParam(required = false) Integer page,
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String embed,
+            @RequestParam(required = false) String fields
+    ) {
+        FieldSelection selection;
+        try {
+            selection = postFields(fields, embed);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid fields: {}", fields);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid fields!");
+        }
+
+        if (page != null) {
+            // deprecated offset paging, kept until clients move to cursors
+            log.info(SAMPLED, "Get recent posts, page: {} limit: {}", page, limit);
+            page = Math.max(page, 0);
+            limit = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+            var head = recentPostWindow.page(page, limit);
+            if (head.isPresent()) {
+                log.info(SAMPLED, "Get recent posts completed from recent window");
+                return ResponseEntity.ok(present(head.get(), embed, selection));
+            }
+            List<Post> posts = postRepository.findNewestPage(page, limit, selection);
+            log.info(SAMPLED, "Get recent posts completed");
+            return ResponseEntity.ok(present(posts, embed, selection));
+        }
+
+        log.info(SAMPLED, "Get recent posts, cursor: {} limit: {}", cursor, limit);
+        PostCursor after;
+        try {
+            after = cursor == null ? null : PostCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid cursor: {}", cursor);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid cursor!");
+        }
+        limit = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        // one extra post tells whether there is a next page without a count query
+        var head = recentPostWindow.page(after, limit + 1);
+        if (head.isPresent()) {
+            log.info(SAMPLED, "Get recent posts by cursor completed from recent window");
+            return ResponseEntity.ok(present(CursorPage.of(head.get(), limit), embed, selection));
+        }
+        List<Post> posts = postRepository.findNewest(after, limit + 1, selection);
+        log.info(SAMPLED, "Get recent posts by cursor completed");
+        return ResponseEntity.ok(present(CursorPage.of(posts, limit), embed, selection));
     }
 
-    @PostMapping("/create")
-    public ResponseEntity createPost(@RequestBody PostRequest request, @RequestHeader("Authorization") String token) {
-        log.info("Creating new post: " + request);
+    @GetMapping("/tags")
+    public ResponseEntity completeTags(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        log.info(SAMPLED, "Complete tags: {}, limit: {}", prefix, limit);
+        if (prefix.isBlank()) {
+            // every tag would match, both the index and the aggregation would rank them all
+            log.warn("Blank tag prefix");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid prefix!");
+        }
+        int clamped = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        return ResponseEntity.ok(
+                tagIndex.complete(prefix, clamped).orElseGet(() -> postRepository.countTagsByPrefix(prefix, clamped))
+        );
+    }
+
+    @GetMapping("/tags/{tag}")
+    public ResponseEntity getPostsByTag(
+            @PathVariable String tag,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String embed,
+            @RequestParam(required = false) String fields
+    ) {
+        log.info(SAMPLED, "Get posts by tag: {}, cursor: {} limit: {}", tag, cursor, limit);
+        FieldSelection selection;
+        try {
+            selection = postFields(fields, embed);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid fields: {}", fields);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid fields!");
+        }
+
+        PostCursor after;
+        try {
+            after = cursor == null ? null : PostCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid cursor: {}", cursor);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid cursor!");
+        }
+        limit = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+
+        List<Post> posts;
+        var indexed = tagIndex.newest(tag, after, limit + 1);
+        if (indexed.isPresent()) {
+            List<UUID> postIds = indexed.get().stream().map(PostCursor::getId).toList();
+            // cached posts are whole, present trims them to the selection
+            Map<UUID, Post> found = postCache.findAllById(postIds);
+            // posts deleted on another instance are skipped
+            posts = postIds.stream().map(found::get).filter(Objects::nonNull).toList();
+        } else {
+            posts = postRepository.findNewestByTag(tag, after, limit + 1, selection);
+        }
+        CursorPage<Post> page = CursorPage.of(posts, limit);
+        page.setTotal(tagIndex.count(tag).orElse(null));
+        log.info(SAMPLED, "Get posts by tag completed");
+        return ResponseEntity.ok(present(page, embed, selection));
+    }
 
-        var user = userRepository.findByEmail(jwtService.extractUsername(token.substring(7)));
-        if (user.isEmpty()) {
-            log.warning("User not found!");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("User not found!");
+    @GetMapping("/trending")
+    public ResponseEntity getTrendingPosts(
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String embed,
+            @RequestParam(required = false) String fields
+    ) {
+        log.info(SAMPLED, "Get trending posts, limit: {}", limit);
+        FieldSelection selection;
+        try {
+            selection = postFields(fields, embed);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid fields: {}", fields);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid fields!");
+        }
+        limit = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        List<UUID> postIds = trendingPosts.top(limit);
+        // cached posts are whole, present trims them to the selection
+        Map<UUID, Post> found = postCache.findAllById(postIds);
+        List<Post> posts = new ArrayList<>(found.size());
+        for (UUID postId : postIds) {
+            Post post = found.get(postId);
+            if (post == null) {
+                // deleted on another instance
+                trendingPosts.remove(postId);
+            } else {
+                posts.add(post);
+            }
         }
-        User creator = user.get();
-        log.info("User: " + user);
+        log.info(SAMPLED, "Get trending posts completed");
+        return ResponseEntity.ok(present(posts, embed, selection));
+    }
+
+    @PostMapping("/create")
+    public ResponseEntity createPost(@RequestBody PostRequest request, @CurrentUser User user) {
+        log.info("Creating new post, user: {}", user.getId());
 
         Post post = Post.builder()
                 .id(UUID.randomUUID())
@@ -90,201 +365,245 @@ public class PostController {
                 .imgUrl(request.getImgUrl())
                 .imgId(request.getImgId())
                 .location(request.getLocation())
-                .createdAt(LocalDateTime.now())
+                // stored with millisecond precision, keep the in-memory copy identical for cursors
+                .createdAt(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS))
                 // this is sure available
-                .creatorId(creator.getId())
-                .likedList(new ArrayList<>())
+                .creatorId(user.getId())
+                .likeCount(0)
                 .build();
         post = postRepository.save(post);
-        log.info("Post created: " + post);
+        recentPostWindow.add(post);
+        trendingPosts.created(post);
+        tagIndex.add(post);
+        userRepository.incrementPostCount(user.getId(), 1);
+        userProfileCache.evict(user.getAccountId());
+        log.info("Post created: {}", post.getId());
         return ResponseEntity.status(HttpStatus.CREATED).body("Post created");
     }
 
     @PutMapping("/{postId}")
-    public ResponseEntity updatePost(@RequestBody PostRequest request, @PathVariable UUID postId) {
-        log.info("Updating post: " + request);
-        var post = postRepository.findById(postId);
-        if (post.isEmpty()) {
-            log.warning("Post not found: " + postId);
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Post not found!");
-        };
-        Post oldPost = post.get();
-        Post newPost = Post.builder()
-                .id(oldPost.getId())
-                .caption(request.getCaption())
-                .tags(request.getTags())
-                .imgUrl(request.getImgUrl())
-                .imgId(request.getImgId())
-                .location(request.getLocation())
-                .createdAt(oldPost.getCreatedAt())
-                .creatorId(oldPost.getCreatorId())
-                .likedList(oldPost.getLikedList())
-                .build();
-        newPost = postRepository.save(newPost);
-        log.info("Post updated: " + newPost);
-        return ResponseEntity.ok("Post updated!");
+    public ResponseEntity updatePost(
+            @RequestBody PostRequest request,
+            @PathVariable UUID postId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        log.info("Updating post: {}", postId);
+        return updatePostFields(postId, ifMatch, request.toChanges(false));
+    }
+
+    @PatchMapping("/{postId}")
+    public ResponseEntity patchPost(
+            @RequestBody PostRequest request,
+            @PathVariable UUID postId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        log.info("Patching post: {}", postId);
+        return updatePostFields(postId, ifMatch, request.toChanges(true));
+    }
+
+    // $set of only the changed fields, concurrent likes are never overwritten
+    private ResponseEntity updatePostFields(UUID postId, String ifMatch, Map<String, Object> changes) {
+        Long expectedVersion;
+        try {
+            expectedVersion = ETags.parseIfMatch(ifMatch);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid If-Match: {}", ifMatch);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid If-Match!");
+        }
+        // the tag index needs the tags being replaced, a concurrent tag update may skew its counts
+        List<String> tagsBefore = null;
+        if (changes.containsKey("tags")) {
+            Post before = postRepository.findProjectedById(postId, FieldSelection.parse("tags", Post.class, "id"));
+            tagsBefore = before == null ? null : before.getTags();
+        }
+        Post updated = postRepository.updateFields(postId, expectedVersion, changes);
+        if (updated == null) {
+            if (!postRepository.existsById(postId)) {
+                log.warn("Post not found: {}", postId);
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Post not found!");
+            }
+            log.warn("Post modified meanwhile: {}", postId);
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body("Post was modified!");
+        }
+        postCache.evict(postId);
+        recentPostWindow.update(postId, held -> updated);
+        if (changes.containsKey("tags")) {
+            tagIndex.update(tagsBefore, updated);
+        }
+        log.info("Post updated: {}, version: {}", postId, updated.getVersion());
+        return ResponseEntity.ok().eTag(ETags.of(updated.getVersion())).body("Post updated!");
     }
 
     @DeleteMapping("/{postId}")
     public ResponseEntity deletePost(@PathVariable UUID postId) {
-        log.info("Deleting post: " + postId);
-        postRepository.deleteById(postId);
+        log.info("Deleting post: {}", postId);
+        Post post = postRepository.deleteAndGet(postId);
+        postCache.evict(postId);
+        recentPostWindow.remove(postId);
+        trendingPosts.remove(postId);
+        if (post != null) {
+            tagIndex.remove(post);
+            // likes and saved references are removed in the background
+            postCleanupWorker.enqueue(postId);
+            userRepository.incrementPostCount(post.getCreatorId(), -1);
+            userProfileCache.evictByUserId(post.getCreatorId());
+        }
         log.info("Post deleted");
         return ResponseEntity.status(HttpStatus.NO_CONTENT).body("Post deleted!");
     }
 
     @PatchMapping("/save")
-    public ResponseEntity savePost(@RequestParam UUID postId, @RequestHeader("Authorization") String token) {
-        log.info("Saving post: " + postId);
+    public ResponseEntity savePost(@RequestParam UUID postId, @CurrentUser User user) {
+        log.info("Saving post: {}", postId);
 
-        var userOptional = userRepository.findByEmail(jwtService.extractUsername(token.substring(7)));
-        if (userOptional.isEmpty()) {
-            log.warning("User not found!");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("User not found!");
-        }
-        User user = userOptional.get();
-
-        var postOptional = postRepository.findById(postId);
-
-        if (postOptional.isEmpty()) {
-            log.warning("Post not found: " + postId);
+        if (!postRepository.existsById(postId)) {
+            log.warn("Post not found: {}", postId);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Post not found!");
         }
 
-        List<UUID> savesList = user.getSavedPosts();
-
-        if (savesList.contains(postOptional.get().getId())) {
-            log.warning("post already saved, duplicate request");
+        if (!userRepository.addSavedPost(user.getId(), postId)) {
+            log.warn("post already saved, duplicate request");
             return ResponseEntity.status(HttpStatus.CONFLICT).body("Duplicate request!");
         }
-
-        savesList.add(postOptional.get().getId());
-
-        user.setSavedPosts(savesList);
-        userRepository.save(user);
+        userProfileCache.evict(user.getAccountId());
 
         log.info("Post saved");
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
     @PatchMapping("/unsave")
-    public ResponseEntity unSavePost(@RequestParam UUID postId, @RequestHeader("Authorization") String token) {
-        log.info("Unsaving post: " + postId);
-
-        var userOptional = userRepository.findByEmail(jwtService.extractUsername(token.substring(7)));
-        if (userOptional.isEmpty()) {
-            log.warning("User not found!");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("User not found!");
-        }
-        User user = userOptional.get();
-
-        var postOptional = postRepository.findById(postId);
-
-        if (postOptional.isEmpty()) {
-            log.warning("Post not found: " + postId);
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Post not found!");
-        }
-
-        List<UUID> savesList = user.getSavedPosts();
-        if (!savesList.contains(postOptional.get().getId())) {
-            log.warning("post is not saved, conflicting request");
+    public ResponseEntity unSavePost(@RequestParam UUID postId, @CurrentUser User user) {
+        log.info("Unsaving post: {}", postId);
+
+        // removing first lets users clear ids of posts that were deleted meanwhile
+        if (!userRepository.removeSavedPost(user.getId(), postId)) {
+            if (!postRepository.existsById(postId)) {
+                log.warn("Post not found: {}", postId);
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Post not found!");
+            }
+            log.warn("post is not saved, conflicting request");
             return ResponseEntity.status(HttpStatus.CONFLICT).body("Conflicting request!");
         }
-        savesList.remove(postOptional.get().getId());
-
-        user.setSavedPosts(savesList);
-        userRepository.save(user);
+        userProfileCache.evict(user.getAccountId());
 
         log.info("Post unsaved");
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
     @PatchMapping("/like")
-    public ResponseEntity likePost(@RequestParam UUID postId, @RequestHeader("Authorization") String token) {
-        log.info("Liking post: " + postId);
-
-        var userOptional = userRepository.findByEmail(jwtService.extractUsername(token.substring(7)));
-        if (userOptional.isEmpty()) {
-            log.warning("User not found!");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("User not found!");
-        }
-        User user = userOptional.get();
+    public ResponseEntity likePost(@RequestParam UUID postId, @CurrentUser User user) {
+        log.info(SAMPLED, "Liking post: {}", postId);
 
-        var postOptional = postRepository.findById(postId);
-
-        if (postOptional.isEmpty()) {
-            log.warning("Post not found: " + postId);
+        if (!postRepository.existsById(postId)) {
+            log.warn("Post not found: {}", postId);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Post not found!");
         }
 
-        Post post = postOptional.get();
-
-        // updating likedPosts list in user
-        List<UUID> likesList = user.getLikedPosts();
-        if (likesList.contains(post.getId())) {
-            log.warning("post is already in user's liked posts list");
-            return ResponseEntity.status(HttpStatus.CONFLICT).body("Duplicate request!");
+        if (likeWriteBuffer.isEnabled()) {
+            if (!likeWriteBuffer.offer(postId, user.getId(), true)) {
+                log.warn("post is already liked by the user");
+                return ResponseEntity.status(HttpStatus.CONFLICT).body("Duplicate request!");
+            }
+            trendingPosts.liked(postId);
+            return new ResponseEntity<>(HttpStatus.OK);
         }
-        likesList.add(post.getId());
-        user.setLikedPosts(likesList);
 
-        // updating likedUsers list in post
-        List<UUID> likedList = post.getLikedList();
-        if (likedList.contains(user.getId())) {
-            log.warning("post is already in post liked users list");
+        // the unique (postId, userId) index decides between concurrent requests
+        Like like = Like.builder()
+                .id(UUID.randomUUID())
+                .postId(postId)
+                .userId(user.getId())
+                // stored with millisecond precision, keep the in-memory copy identical for cursors
+                .createdAt(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS))
+                .build();
+        try {
+            likeRepository.insert(like);
+        } catch (DuplicateKeyException e) {
+            log.warn("post is already liked by the user");
             return ResponseEntity.status(HttpStatus.CONFLICT).body("Duplicate request!");
         }
-        likedList.add(user.getId());
-        post.setLikedList(likedList);
 
-        userRepository.save(user);
-        postRepository.save(post);
+        if (!postRepository.incrementLikeCount(postId, 1)) {
+            // post deleted meanwhile
+            likeRepository.delete(like);
+            log.warn("Post not found: {}", postId);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Post not found!");
+        }
+        postCache.evict(postId);
+        recentPostWindow.update(postId, held -> held.toBuilder().likeCount(held.getLikeCount() + 1).build());
+        trendingPosts.liked(postId);
 
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
     @PatchMapping("/unlike")
-    public ResponseEntity unLikePost(@RequestParam UUID postId, @RequestHeader("Authorization") String token) {
-        log.info("Unliking post: " + postId);
-
-        var userOptional = userRepository.findByEmail(jwtService.extractUsername(token.substring(7)));
-        if (userOptional.isEmpty()) {
-            log.warning("User not found!");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("User not found!");
+    public ResponseEntity unLikePost(@RequestParam UUID postId, @CurrentUser User user) {
+        log.info(SAMPLED, "Unliking post: {}", postId);
+
+        if (likeWriteBuffer.isEnabled()) {
+            if (!postRepository.existsById(postId)) {
+                log.warn("Post not found: {}", postId);
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Post not found!");
+            }
+            if (!likeWriteBuffer.offer(postId, user.getId(), false)) {
+                log.warn("post is not liked by the user");
+                return ResponseEntity.status(HttpStatus.CONFLICT).body("Conflicting request!");
+            }
+            trendingPosts.unliked(postId);
+            return new ResponseEntity<>(HttpStatus.OK);
         }
-        User user = userOptional.get();
 
-        var postOptional = postRepository.findById(postId);
+        if (likeRepository.deleteByPostIdAndUserId(postId, user.getId()) == 0) {
+            if (!postRepository.existsById(postId)) {
+                log.warn("Post not found: {}", postId);
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Post not found!");
+            }
+            log.warn("post is not liked by the user");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Conflicting request!");
+        }
 
-        if (postOptional.isEmpty()) {
-            log.warning("Post not found: " + postId);
+        if (!postRepository.incrementLikeCount(postId, -1)) {
+            log.warn("Post not found: {}", postId);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Post not found!");
         }
+        postCache.evict(postId);
+        recentPostWindow.update(postId, held -> held.toBuilder().likeCount(held.getLikeCount() - 1).build());
+        trendingPosts.unliked(postId);
 
-        Post post = postOptional.get();
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
 
-        // updating likedPosts list in user
-        List<UUID> likesList = user.getLikedPosts();
-        if (!likesList.contains(post.getId())) {
-            log.warning("post is not in user's liked posts list");
-            return ResponseEntity.status(HttpStatus.CONFLICT).body("Conflicting request!");
-        }
-        likesList.remove(post.getId());
-        user.setLikedPosts(likesList);
+    @GetMapping("/{postId}/likes")
+    public ResponseEntity getPostLikes(@PathVariable UUID postId, @RequestParam int page, @RequestParam int limit) {
+        log.info(SAMPLED, "Get likes of post: {}, page: {} limit: {}", postId, page, limit);
+        page = Math.max(page, 0);
+        limit = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        Slice<Like> likes = likeRepository.findByPostIdOrderByCreatedAtDesc(postId, PageRequest.of(page, limit));
+        log.info(SAMPLED, "Get likes of post completed");
+        return ResponseEntity.ok(likes.getContent());
+    }
 
-        // updating likedUsers list in post
-        List<UUID> likedList = post.getLikedList();
-        if (!likedList.contains(user.getId())) {
-            log.warning("post is not in post liked users list");
-            return ResponseEntity.status(HttpStatus.CONFLICT).body("Conflicting request!");
-        }
-        likedList.remove(user.getId());
-        post.setLikedList(likedList);
+    // listings always keep the cursor keys, and the creator when authors are embedded
+    private static FieldSelection postFields(String fields, String embed) {
+        FieldSelection selection = FieldSelection.parse(fields, Post.class, "id", "createdAt");
+        return selection != null && EMBED_AUTHOR.equals(embed) ? selection.with("creatorId") : selection;
+    }
 
-        userRepository.save(user);
-        postRepository.save(post);
+    // embed=author adds author summaries, resolved for the whole page at once, then fields are trimmed
+    private List<?> present(List<Post> posts, String embed, FieldSelection selection) {
+        List<?> items = posts;
+        if (EMBED_AUTHOR.equals(embed)) {
+            var creatorIds = posts.stream().map(Post::getCreatorId).collect(Collectors.toSet());
+            items = PostView.of(posts, authorSummaryCache.findAllById(creatorIds));
+        }
+        return selection == null ? items : selection.renderAll(items, objectMapper, "author");
+    }
 
-        return new ResponseEntity<>(HttpStatus.OK);
+    private CursorPage<?> present(CursorPage<Post> page, String embed, FieldSelection selection) {
+        if (!EMBED_AUTHOR.equals(embed) && selection == null) {
+            return page;
+        }
+        return new CursorPage<>(present(page.getItems(), embed, selection), page.getNextCursor(), page.getTotal());
     }
 
 }
@@ -0,0 +1,60 @@
+package org.freebook.backend.post;
+
+
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.freebook.backend.user.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * One-off backfill of {@code user.postCount} for users created before it was maintained.
+ * Enable with {@code freebook.migrations.post-counts.enabled=true}, it overwrites the counters
+ * so it is safe to re-run.
+ */
+@Component
+@ConditionalOnProperty(name = "freebook.migrations.post-counts.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class PostCountMigrationRunner implements ApplicationRunner {
+
+    private final MongoTemplate mongoTemplate;
+
+    private Logger log = LoggerFactory.getLogger(PostCountMigrationRunner.class);
+
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("Backfilling user post counts");
+        var aggregation = Aggregation.newAggregation(
+                Aggregation.group("creatorId").count().as("count")
+        );
+        var counts = mongoTemplate.aggregate(aggregation, Post.class, CreatorCount.class).getMappedResults();
+
+        var bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        bulk.updateMulti(query(where("postCount").exists(false)), new Update().set("postCount", 0L));
+        for (CreatorCount count : counts) {
+            bulk.updateOne(query(where("id").is(count.getId())), new Update().set("postCount", count.getCount()));
+        }
+        bulk.execute();
+        log.info("User post counts backfilled, creators: {}", counts.size());
+    }
+
+    @Data
+    static class CreatorCount {
+        private UUID id;
+        private long count;
+    }
+
+}
@@ -0,0 +1,66 @@
+package org.freebook.backend.post;
+
+
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a newest first post listing, the (createdAt, id) of the last post returned.
+ * Clients receive it as an opaque url safe string.
+ */
+@Value
+public class PostCursor {
+
+    LocalDateTime createdAt;
+    UUID id;
+
+    public static PostCursor of(Post post) {
+        return new PostCursor(post.getCreatedAt(), post.getId());
+    }
+
+    /**
+     * Orders cursors the way the (createdAt desc, _id desc) index does, negative if {@code a} comes first.
+     */
+    public static int compareNewestFirst(PostCursor a, PostCursor b) {
+        int byDate = b.createdAt.compareTo(a.createdAt);
+        return byDate != 0 ? byDate : compareStoredIds(b.id, a.id);
+    }
+
+    // ids are stored as java legacy binary, each half little endian, and compared as unsigned bytes
+    private static int compareStoredIds(UUID a, UUID b) {
+        int byMost = Long.compareUnsigned(
+                Long.reverseBytes(a.getMostSignificantBits()),
+                Long.reverseBytes(b.getMostSignificantBits())
+        );
+        return byMost != 0 ? byMost : Long.compareUnsigned(
+                Long.reverseBytes(a.getLeastSignificantBits()),
+                Long.reverseBytes(b.getLeastSignificantBits())
+        );
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor was not produced by {@link #encode()}
+     */
+    public static PostCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new PostCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+}
@@ -0,0 +1,86 @@
+package org.freebook.backend.post;
+
+
+import org.freebook.backend.configs.FieldSelection;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Queries and atomic updates on {@link Post} built with the template, implemented in {@link PostRepositoryCustomImpl}.
+ * Listing queries take an optional {@link FieldSelection}, null reads whole documents.
+ */
+public interface PostRepositoryCustom {
+
+    /**
+     * Adds {@code delta} to the post's like count.
+     *
+     * @return false if the post does not exist
+     */
+    boolean incrementLikeCount(UUID postId, long delta);
+
+    /**
+     * Newest first posts strictly after the cursor, backed by the (createdAt, id) index.
+     *
+     * @param after null for the first page
+     */
+    List<Post> findNewest(PostCursor after, int limit, FieldSelection fields);
+
+    /**
+     * Newest first posts by offset, for the deprecated page/limit parameters of the recent feed.
+     */
+    List<Post> findNewestPage(int page, int limit, FieldSelection fields);
+
+    /**
+     * Newest first posts of the creator strictly after the cursor, backed by the (creatorId, createdAt, id) index.
+     *
+     * @param after null for the first page
+     */
+    List<Post> findNewestByCreator(UUID creatorId, PostCursor after, int limit, FieldSelection fields);
+
+    /**
+     * Newest first posts having the tag strictly after the cursor, backed by the (tags, createdAt) multikey index.
+     *
+     * @param after null for the first page
+     */
+    List<Post> findNewestByTag(String tag, PostCursor after, int limit, FieldSelection fields);
+
+    /**
+     * Up to {@code limit} tags starting with the prefix, most used first, counted over every post.
+     * Scans the posts of each matching tag, only meant for when the tag index cannot answer.
+     */
+    List<TagCount> countTagsByPrefix(String prefix, int limit);
+
+    /**
+     * Deletes the post and returns it, so callers can update counters that depend on it.
+     *
+     * @return null if the post does not exist
+     */
+    Post deleteAndGet(UUID postId);
+
+    /**
+     * Full text search over caption and tags, most relevant first, backed by the text index.
+     */
+    List<Post> searchText(String text, int page, int limit, FieldSelection fields);
+
+    /**
+     * Newest first posts having the tag, or a tag starting with it when {@code prefix} is set.
+     * The tag is matched literally, backed by the (tags, createdAt) multikey index.
+     */
+    List<Post> findByTag(String tag, boolean prefix, int page, int limit, FieldSelection fields);
+
+    /**
+     * @return null if the post does not exist
+     */
+    Post findProjectedById(UUID postId, FieldSelection fields);
+
+    /**
+     * Sets the given fields and bumps the version, if the post is at the expected version.
+     *
+     * @param expectedVersion null to update any version
+     * @return the updated post, or null if the post does not exist or is at another version
+     */
+    Post updateFields(UUID postId, Long expectedVersion, Map<String, Object> changes);
+
+}
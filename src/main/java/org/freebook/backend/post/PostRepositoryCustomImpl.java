@@ -0,0 +1,147 @@
+package org.freebook.backend.post;
+
+
+import lombok.RequiredArgsConstructor;
+import org.freebook.backend.configs.ETags;
+import org.freebook.backend.configs.FieldSelection;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@RequiredArgsConstructor
+public class PostRepositoryCustomImpl implements PostRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean incrementLikeCount(UUID postId, long delta) {
+        // by collection name, an update typed to Post would also bump the entity tag version
+        var result = mongoTemplate.updateFirst(
+                query(where("_id").is(postId)),
+                new Update().inc("likeCount", delta),
+                mongoTemplate.getCollectionName(Post.class)
+        );
+        return result.getMatchedCount() > 0;
+    }
+
+    @Override
+    public List<Post> findNewest(PostCursor after, int limit, FieldSelection fields) {
+        return findNewest(new Criteria(), after, limit, fields);
+    }
+
+    @Override
+    public List<Post> findNewestPage(int page, int limit, FieldSelection fields) {
+        var query = new Query()
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "id"))
+                .skip((long) page * limit)
+                .limit(limit);
+        return mongoTemplate.find(project(query, fields), Post.class);
+    }
+
+    @Override
+    public List<Post> findNewestByCreator(UUID creatorId, PostCursor after, int limit, FieldSelection fields) {
+        return findNewest(where("creatorId").is(creatorId), after, limit, fields);
+    }
+
+    @Override
+    public List<Post> findNewestByTag(String tag, PostCursor after, int limit, FieldSelection fields) {
+        return findNewest(where("tags").is(tag), after, limit, fields);
+    }
+
+    @Override
+    public List<TagCount> countTagsByPrefix(String prefix, int limit) {
+        Criteria matching = where("tags").regex("^" + Pattern.quote(prefix));
+        var aggregation = Aggregation.newAggregation(
+                Aggregation.match(matching),
+                Aggregation.project("tags"),
+                Aggregation.unwind("tags"),
+                // other tags of the matched posts
+                Aggregation.match(matching),
+                Aggregation.group("tags").count().as("count"),
+                Aggregation.sort(Sort.by(Sort.Order.desc("count"), Sort.Order.asc("_id"))),
+                Aggregation.limit(limit),
+                Aggregation.project("count").and("tag").previousOperation()
+        );
+        return mongoTemplate.aggregate(aggregation, Post.class, TagCount.class).getMappedResults();
+    }
+
+    @Override
+    public Post deleteAndGet(UUID postId) {
+        return mongoTemplate.findAndRemove(query(where("id").is(postId)), Post.class);
+    }
+
+    private List<Post> findNewest(Criteria criteria, PostCursor after, int limit, FieldSelection fields) {
+        if (after != null) {
+            criteria.orOperator(
+                    where("createdAt").lt(after.getCreatedAt()),
+                    where("createdAt").is(after.getCreatedAt()).and("id").lt(after.getId())
+            );
+        }
+        var query = query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "id"))
+                .limit(limit);
+        return mongoTemplate.find(project(query, fields), Post.class);
+    }
+
+    @Override
+    public List<Post> searchText(String text, int page, int limit, FieldSelection fields) {
+        var query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(text))
+                .sortByScore()
+                .skip((long) page * limit)
+                .limit(limit);
+        return mongoTemplate.find(project(query, fields), Post.class);
+    }
+
+    @Override
+    public List<Post> findByTag(String tag, boolean prefix, int page, int limit, FieldSelection fields) {
+        // an anchored, case sensitive prefix of a quoted literal is still an index range scan
+        Criteria criteria = prefix
+                ? where("tags").regex("^" + Pattern.quote(tag))
+                : where("tags").is(tag);
+        var query = query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "createdAt"))
+                .skip((long) page * limit)
+                .limit(limit);
+        return mongoTemplate.find(project(query, fields), Post.class);
+    }
+
+    @Override
+    public Post findProjectedById(UUID postId, FieldSelection fields) {
+        return mongoTemplate.findOne(project(query(where("id").is(postId)), fields), Post.class);
+    }
+
+    @Override
+    public Post updateFields(UUID postId, Long expectedVersion, Map<String, Object> changes) {
+        Update update = new Update().inc("version", 1);
+        changes.forEach(update::set);
+        var query = query(where("id").is(postId));
+        if (expectedVersion != null) {
+            query.addCriteria(ETags.versionIs(expectedVersion));
+        }
+        return mongoTemplate.findAndModify(
+                query,
+                update,
+                FindAndModifyOptions.options().returnNew(true),
+                Post.class
+        );
+    }
+
+    private static Query project(Query query, FieldSelection fields) {
+        return fields == null ? query : fields.applyTo(query);
+    }
+
+}
@@ -4,10 +4,10 @@ package org.freebook.backend.post;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.freebook.backend.user.User;
 
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
 
 @Data
 @AllArgsConstructor
@@ -20,4 +20,17 @@ public class PostRequest {
     private String imgId;
     private String location;
 
+    /**
+     * Fields to {@code $set}, all editable fields for a replacement or only the given ones for a patch.
+     */
+    public Map<String, Object> toChanges(boolean partial) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        if (!partial || caption != null) changes.put("caption", caption);
+        if (!partial || tags != null) changes.put("tags", tags);
+        if (!partial || imgUrl != null) changes.put("imgUrl", imgUrl);
+        if (!partial || imgId != null) changes.put("imgId", imgId);
+        if (!partial || location != null) changes.put("location", location);
+        return changes;
+    }
+
 }
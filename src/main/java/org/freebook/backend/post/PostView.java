@@ -0,0 +1,32 @@
+package org.freebook.backend.post;
+
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.freebook.backend.user.AuthorSummary;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A {@link Post} serialized with its fields at the top level plus an embedded {@code author}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostView {
+
+    @JsonUnwrapped
+    private Post post;
+    private AuthorSummary author;
+
+    public static List<PostView> of(List<Post> posts, Map<UUID, AuthorSummary> authors) {
+        return posts.stream()
+                .map(post -> new PostView(post, authors.get(post.getCreatorId())))
+                .toList();
+    }
+
+}
@@ -0,0 +1,227 @@
+package org.freebook.backend.post;
+
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory window of the newest posts, in the same (createdAt desc, id desc) order as the
+ * recent feed index, so the head of the feed is served without a database query.
+ * The window is kept correct by the write paths of this instance and rebuilt from the database
+ * on startup, whenever deletes shrink it too much and every {@code refresh-interval}, which bounds
+ * how long writes of other instances stay invisible. Requests reaching past the window return
+ * empty and fall through to the database.
+ */
+@Component
+public class RecentPostWindow {
+
+    private static final int REFRESH_ATTEMPTS = 3;
+
+    private final PostRepository postRepository;
+    private final TaskExecutor taskExecutor;
+    private final int capacity;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // newest first, guarded by lock
+    private final List<Post> posts = new ArrayList<>();
+    // true when the window holds every post in the collection, guarded by lock
+    private boolean exhaustive = false;
+    private volatile boolean loaded = false;
+
+    private final AtomicLong modifications = new AtomicLong();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private Logger log = LoggerFactory.getLogger(RecentPostWindow.class);
+
+    public RecentPostWindow(
+            PostRepository postRepository,
+            TaskExecutor taskExecutor,
+            @Value("${freebook.recent-window.size:200}") int capacity
+    ) {
+        this.postRepository = postRepository;
+        this.taskExecutor = taskExecutor;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Up to {@code limit} posts strictly after the cursor.
+     *
+     * @return empty if the window cannot answer the whole page
+     */
+    public Optional<List<Post>> page(PostCursor after, int limit) {
+        if (!loaded) {
+            refreshAsync();
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            int from = after == null ? 0 : firstAfter(after);
+            return slice(from, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Offset based page, for the deprecated page/limit parameters.
+     *
+     * @return empty if the window cannot answer the whole page
+     */
+    public Optional<List<Post>> page(int page, int limit) {
+        if (!loaded) {
+            refreshAsync();
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            return slice((int) Math.min((long) page * limit, Integer.MAX_VALUE), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void add(Post post) {
+        lock.writeLock().lock();
+        try {
+            modifications.incrementAndGet();
+            int index = firstAfter(PostCursor.of(post));
+            if (index == posts.size() && !exhaustive && posts.size() >= capacity) {
+                // older than everything we hold, not part of the head
+                return;
+            }
+            posts.add(index, post);
+            if (posts.size() > capacity) {
+                posts.remove(posts.size() - 1);
+                exhaustive = false;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the held post with the result of {@code update}, posts are shared with readers
+     * so the update must return a copy instead of mutating.
+     */
+    public void update(UUID postId, UnaryOperator<Post> update) {
+        lock.writeLock().lock();
+        try {
+            modifications.incrementAndGet();
+            for (int i = 0; i < posts.size(); i++) {
+                if (posts.get(i).getId().equals(postId)) {
+                    posts.set(i, update.apply(posts.get(i)));
+                    return;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID postId) {
+        boolean shrunk;
+        lock.writeLock().lock();
+        try {
+            modifications.incrementAndGet();
+            posts.removeIf(post -> post.getId().equals(postId));
+            shrunk = !exhaustive && posts.size() < capacity / 2;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (shrunk) {
+            refreshAsync();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void refreshAsync() {
+        if (refreshing.compareAndSet(false, true)) {
+            taskExecutor.execute(() -> {
+                try {
+                    refresh();
+                } catch (RuntimeException e) {
+                    log.warn("Recent post window refresh failed", e);
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Re-reads the head of the feed, picking up posts written behind this instance's back.
+     */
+    @Scheduled(
+            initialDelayString = "${freebook.recent-window.refresh-interval:PT10S}",
+            fixedDelayString = "${freebook.recent-window.refresh-interval:PT10S}"
+    )
+    public void refreshPeriodically() {
+        refreshAsync();
+    }
+
+    /**
+     * Rebuilds the window from the (createdAt, id) index. A result raced by writes of this
+     * instance is discarded and loaded again, after a few attempts the next miss retries.
+     */
+    public void refresh() {
+        for (int attempt = 0; attempt < REFRESH_ATTEMPTS; attempt++) {
+            long stamp = modifications.get();
+            List<Post> newest = postRepository.findNewest(null, capacity, null);
+            lock.writeLock().lock();
+            try {
+                if (modifications.get() != stamp) {
+                    continue;
+                }
+                posts.clear();
+                posts.addAll(newest);
+                exhaustive = newest.size() < capacity;
+                loaded = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.debug("Recent post window loaded, posts: {}", newest.size());
+            return;
+        }
+    }
+
+    private Optional<List<Post>> slice(int from, int limit) {
+        int to = (int) Math.min((long) from + limit, Integer.MAX_VALUE);
+        if (to > posts.size() && !exhaustive) {
+            return Optional.empty();
+        }
+        from = Math.min(from, posts.size());
+        return Optional.of(List.copyOf(posts.subList(from, Math.min(to, posts.size()))));
+    }
+
+    // index of the first post strictly older than the cursor, binary search over the sorted window
+    private int firstAfter(PostCursor cursor) {
+        int low = 0;
+        int high = posts.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (PostCursor.compareNewestFirst(PostCursor.of(posts.get(mid)), cursor) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+}
@@ -0,0 +1,19 @@
+package org.freebook.backend.post;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A tag and the number of posts having it, as returned by tag autocomplete.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TagCount {
+
+    private String tag;
+    private long count;
+
+}
@@ -0,0 +1,359 @@
+package org.freebook.backend.post;
+
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory index of post tags: a sorted map for prefix autocomplete, the number of posts per tag,
+ * and the newest posts of each tag, so tag pages are served without a database query.
+ * Memory is bounded by {@code max-tags} tags and {@code max-cursors} held posts in total, each tag
+ * holding at most {@code posts-per-tag} of its newest posts. Counts stay exact past the bounds and
+ * pages reaching beyond the held posts fall through to the database, as do lookups of unknown tags
+ * once a tag had to be left out.
+ * <p>
+ * The index is kept by the write paths of this instance and built by a streaming scan of the post
+ * collection on startup and every {@code rebuild-interval}, which picks up writes of other instances
+ * and lets tags left out of a full index back in. Writes made while a scan runs are replayed on top
+ * of its result.
+ * Until the scan completes the index only knows about recent writes and answers nothing.
+ */
+@Component
+public class TagIndex implements MeterBinder {
+
+    private final MongoTemplate mongoTemplate;
+    private final TaskExecutor taskExecutor;
+    private final int maxTags;
+    private final int postsPerTag;
+    private final long maxCursors;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // guarded by lock
+    private Index index = new Index();
+    // writes made while loading, replayed on the loaded index, guarded by lock
+    private List<Consumer<Index>> journal = null;
+    private volatile boolean loaded = false;
+    private final AtomicBoolean loading = new AtomicBoolean();
+
+    private Logger log = LoggerFactory.getLogger(TagIndex.class);
+
+    public TagIndex(
+            MongoTemplate mongoTemplate,
+            TaskExecutor taskExecutor,
+            @Value("${freebook.tag-index.max-tags:100000}") int maxTags,
+            @Value("${freebook.tag-index.posts-per-tag:100}") int postsPerTag,
+            @Value("${freebook.tag-index.max-cursors:500000}") long maxCursors
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.taskExecutor = taskExecutor;
+        this.maxTags = maxTags;
+        this.postsPerTag = postsPerTag;
+        this.maxCursors = maxCursors;
+    }
+
+    public void add(Post post) {
+        PostCursor cursor = PostCursor.of(post);
+        write(index -> tagsOf(post).forEach(tag -> add(index, tag, cursor)));
+    }
+
+    public void remove(Post post) {
+        PostCursor cursor = PostCursor.of(post);
+        write(index -> tagsOf(post).forEach(tag -> remove(index, tag, cursor)));
+    }
+
+    /**
+     * Moves the post from its previous tags to its current ones.
+     */
+    public void update(Collection<String> before, Post after) {
+        PostCursor cursor = PostCursor.of(after);
+        Set<String> added = new TreeSet<>(tagsOf(after));
+        Set<String> removed = new TreeSet<>(before == null ? List.of() : before);
+        added.removeAll(before == null ? List.of() : before);
+        removed.removeAll(tagsOf(after));
+        write(index -> {
+            removed.forEach(tag -> remove(index, tag, cursor));
+            added.forEach(tag -> add(index, tag, cursor));
+        });
+    }
+
+    /**
+     * Up to {@code limit} tags starting with the prefix, most used first.
+     *
+     * @return empty if the index cannot tell
+     * @throws IllegalArgumentException if the prefix is blank, it would rank every tag
+     */
+    public Optional<List<TagCount>> complete(String prefix, int limit) {
+        if (prefix.isBlank()) {
+            throw new IllegalArgumentException("Blank prefix");
+        }
+        PriorityQueue<TagCount> best = new PriorityQueue<>(Comparator.comparingLong(TagCount::getCount));
+        lock.readLock().lock();
+        try {
+            if (!loaded) {
+                return Optional.empty();
+            }
+            index.tags.tailMap(prefix, true).entrySet().stream()
+                    .takeWhile(entry -> entry.getKey().startsWith(prefix))
+                    .forEach(entry -> {
+                        best.add(new TagCount(entry.getKey(), entry.getValue().count));
+                        if (best.size() > limit) {
+                            best.poll();
+                        }
+                    });
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<TagCount> completions = new ArrayList<>(best);
+        completions.sort(Comparator.comparingLong(TagCount::getCount).reversed().thenComparing(TagCount::getTag));
+        return Optional.of(completions);
+    }
+
+    /**
+     * Number of posts having the tag.
+     *
+     * @return empty if the index cannot tell
+     */
+    public Optional<Long> count(String tag) {
+        lock.readLock().lock();
+        try {
+            if (!loaded) {
+                return Optional.empty();
+            }
+            Tag held = index.tags.get(tag);
+            if (held != null) {
+                return Optional.of(held.count);
+            }
+            return index.full ? Optional.empty() : Optional.of(0L);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} newest posts having the tag strictly after the cursor.
+     *
+     * @return empty if the index cannot answer the whole page
+     */
+    public Optional<List<PostCursor>> newest(String tag, PostCursor after, int limit) {
+        lock.readLock().lock();
+        try {
+            if (!loaded) {
+                return Optional.empty();
+            }
+            Tag held = index.tags.get(tag);
+            if (held == null) {
+                return index.full ? Optional.empty() : Optional.of(List.of());
+            }
+            var tail = after == null ? held.newest : held.newest.tailSet(after, false);
+            List<PostCursor> page = tail.stream().limit(limit).toList();
+            if (page.size() < limit && held.count > held.newest.size()) {
+                // older posts of the tag were dropped
+                return Optional.empty();
+            }
+            return Optional.of(page);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.tags.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Posts held over all tags.
+     */
+    public long cursors() {
+        lock.readLock().lock();
+        try {
+            return index.cursors;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("freebook.tags.indexed", this, TagIndex::size)
+                .description("Tags held in the tag index")
+                .register(registry);
+        Gauge.builder("freebook.tags.cursors", this, TagIndex::cursors)
+                .description("Posts held over all tags of the tag index")
+                .register(registry);
+    }
+
+    private void write(Consumer<Index> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(index);
+            if (journal != null) {
+                journal.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // guarded by lock, or confined to the loading thread
+    private void add(Index index, String tag, PostCursor cursor) {
+        Tag held = index.tags.get(tag);
+        if (held == null) {
+            if (index.tags.size() >= maxTags) {
+                index.full = true;
+                return;
+            }
+            held = new Tag();
+            index.tags.put(tag, held);
+        }
+        if (held.newest.contains(cursor)) {
+            return;
+        }
+        held.count++;
+        held.newest.add(cursor);
+        index.cursors++;
+        // over either bound the tag gives up its oldest post, its count stays exact
+        if (held.newest.size() > postsPerTag || index.cursors > maxCursors) {
+            held.newest.pollLast();
+            index.cursors--;
+        }
+    }
+
+    // guarded by lock, or confined to the loading thread
+    private void remove(Index index, String tag, PostCursor cursor) {
+        Tag held = index.tags.get(tag);
+        if (held == null) {
+            return;
+        }
+        boolean wasHeld = held.newest.remove(cursor);
+        if (wasHeld) {
+            index.cursors--;
+        }
+        // a post not held is older than every held one, and counted if some were dropped
+        if (wasHeld || held.count > held.newest.size()) {
+            held.count--;
+        }
+        if (held.count <= 0) {
+            index.cursors -= held.newest.size();
+            index.tags.remove(tag);
+        }
+    }
+
+    private static Collection<String> tagsOf(Post post) {
+        return post.getTags() == null ? List.of() : post.getTags();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAsync() {
+        if (!loading.compareAndSet(false, true)) {
+            return;
+        }
+        taskExecutor.execute(() -> {
+            try {
+                load();
+            } catch (RuntimeException e) {
+                log.warn("Tag index load failed", e);
+                lock.writeLock().lock();
+                journal = null;
+                lock.writeLock().unlock();
+            } finally {
+                loading.set(false);
+            }
+        });
+    }
+
+    /**
+     * Rebuilds the index in the background, a failed startup load is retried the same way.
+     */
+    @Scheduled(
+            initialDelayString = "${freebook.tag-index.rebuild-interval:PT1H}",
+            fixedDelayString = "${freebook.tag-index.rebuild-interval:PT1H}"
+    )
+    public void rebuild() {
+        loadAsync();
+    }
+
+    /**
+     * Rebuilds the index from a scan of every post's tags.
+     */
+    public void load() {
+        lock.writeLock().lock();
+        try {
+            journal = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Index scanned = new Index();
+        Query everything = new Query();
+        everything.fields().include("id", "createdAt", "tags");
+        long posts = 0;
+        try (var stream = mongoTemplate.stream(everything, Post.class)) {
+            for (Post post : (Iterable<Post>) stream::iterator) {
+                PostCursor cursor = PostCursor.of(post);
+                for (String tag : tagsOf(post)) {
+                    add(scanned, tag, cursor);
+                }
+                posts++;
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            journal.forEach(change -> change.accept(scanned));
+            journal = null;
+            index = scanned;
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Tag index loaded, posts: {}, tags: {}, held: {}", posts, scanned.tags.size(), scanned.cursors);
+    }
+
+    private static class Index {
+
+        private final TreeMap<String, Tag> tags = new TreeMap<>();
+        // posts held over all tags
+        private long cursors;
+        // some tag was left out, unknown tags cannot be told apart from it
+        private boolean full;
+
+    }
+
+    private static class Tag {
+
+        private long count;
+        private final TreeSet<PostCursor> newest = new TreeSet<>(PostCursor::compareNewestFirst);
+
+    }
+
+}
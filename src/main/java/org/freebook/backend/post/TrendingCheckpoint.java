@@ -0,0 +1,45 @@
+package org.freebook.backend.post;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Snapshot of one instance's {@link TrendingPosts} scores, a document per instance replaced on
+ * every checkpoint of that instance.
+ */
+@Document(collection = "trending_checkpoint")
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TrendingCheckpoint {
+
+    public static String idOf(String instanceId) {
+        return "trending:" + instanceId;
+    }
+
+    @Id
+    private String id;
+    // scores are relative to this instant
+    private LocalDateTime epoch;
+    private LocalDateTime savedAt;
+    private List<Score> scores;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Score {
+        private UUID postId;
+        private double score;
+    }
+
+}
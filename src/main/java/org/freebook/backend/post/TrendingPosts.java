@@ -0,0 +1,276 @@
+package org.freebook.backend.post;
+
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.freebook.backend.configs.FieldSelection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Time-decayed popularity of posts, maintained from create and like events. An event adds its
+ * weight scaled by {@code 2^(age / half-life)} relative to a fixed epoch, which ranks exactly like
+ * decaying every score over time without ever touching old entries. Scores are kept in a skip list
+ * ordered by score, so the top K is read in O(K) without locking, and only the best
+ * {@code max-tracked} posts are held.
+ * <p>
+ * Scores are checkpointed to the database periodically and restored on startup. Each instance only
+ * sees its own events and keeps its own checkpoint, keyed by {@code instance-id}. Without a
+ * checkpoint the scores are rebuilt from the like counts of recent posts.
+ */
+@Component
+public class TrendingPosts implements MeterBinder {
+
+    // rebase before 2^exponent gets anywhere near the double range
+    private static final double MAX_EXPONENT = 64;
+
+    private static final Comparator<Entry> BEST_FIRST = Comparator
+            .comparingDouble(Entry::score).reversed()
+            .thenComparing(Entry::postId);
+
+    private final MongoTemplate mongoTemplate;
+    private final PostRepository postRepository;
+    private final TaskExecutor taskExecutor;
+
+    private final Duration halfLife;
+    private final int maxTracked;
+    private final int rebuildPosts;
+    private final double createWeight;
+    private final String checkpointId;
+
+    // a lock rather than a monitor, a virtual thread waiting on a monitor pins its carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    // guarded by lock, the ranking is also read without locking
+    private final Map<UUID, Entry> entries = new HashMap<>();
+    private final NavigableSet<Entry> ranking = new ConcurrentSkipListSet<>(BEST_FIRST);
+    private LocalDateTime epoch = LocalDateTime.now();
+
+    private Logger log = LoggerFactory.getLogger(TrendingPosts.class);
+
+    public TrendingPosts(
+            MongoTemplate mongoTemplate,
+            PostRepository postRepository,
+            TaskExecutor taskExecutor,
+            @Value("${freebook.trending.half-life:6h}") Duration halfLife,
+            @Value("${freebook.trending.max-tracked:10000}") int maxTracked,
+            @Value("${freebook.trending.rebuild-posts:5000}") int rebuildPosts,
+            @Value("${freebook.trending.create-weight:1}") double createWeight,
+            @Value("${freebook.trending.instance-id:local}") String instanceId
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.postRepository = postRepository;
+        this.taskExecutor = taskExecutor;
+        this.halfLife = halfLife;
+        this.maxTracked = maxTracked;
+        this.rebuildPosts = rebuildPosts;
+        this.createWeight = createWeight;
+        this.checkpointId = TrendingCheckpoint.idOf(instanceId);
+    }
+
+    public void created(Post post) {
+        add(post.getId(), createWeight, post.getCreatedAt());
+    }
+
+    public void liked(UUID postId) {
+        add(postId, 1, LocalDateTime.now());
+    }
+
+    public void unliked(UUID postId) {
+        add(postId, -1, LocalDateTime.now());
+    }
+
+    public void remove(UUID postId) {
+        lock.lock();
+        try {
+            Entry entry = entries.remove(postId);
+            if (entry != null) {
+                ranking.remove(entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ids of the {@code limit} highest scoring posts, best first.
+     */
+    public List<UUID> top(int limit) {
+        // the iteration races with rescoring, a post moved down meanwhile can be met twice
+        Set<UUID> postIds = new LinkedHashSet<>(limit);
+        for (Entry entry : ranking) {
+            if (postIds.size() == limit) {
+                break;
+            }
+            postIds.add(entry.postId());
+        }
+        return new ArrayList<>(postIds);
+    }
+
+    public int size() {
+        return ranking.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("freebook.trending.tracked", this, TrendingPosts::size)
+                .description("Posts held in the trending ranking")
+                .register(registry);
+    }
+
+    private void add(UUID postId, double weight, LocalDateTime at) {
+        lock.lock();
+        try {
+            adjust(postId, weight * growth(at));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // guarded by lock
+    private void adjust(UUID postId, double delta) {
+        Entry current = entries.get(postId);
+        double score = (current == null ? 0 : current.score()) + delta;
+        if (current != null) {
+            ranking.remove(current);
+        }
+        if (score <= 0) {
+            entries.remove(postId);
+            return;
+        }
+        Entry updated = new Entry(postId, score);
+        entries.put(postId, updated);
+        ranking.add(updated);
+        while (ranking.size() > maxTracked) {
+            entries.remove(ranking.pollLast().postId());
+        }
+    }
+
+    private double growth(LocalDateTime at) {
+        return Math.pow(2, exponent(at));
+    }
+
+    private double exponent(LocalDateTime at) {
+        return (double) Duration.between(epoch, at).toMillis() / halfLife.toMillis();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAsync() {
+        taskExecutor.execute(() -> {
+            try {
+                load();
+            } catch (RuntimeException e) {
+                log.warn("Trending posts load failed", e);
+            }
+        });
+    }
+
+    /**
+     * Merges the last checkpoint, or an estimate from recent posts, into the scores collected since startup.
+     */
+    public void load() {
+        TrendingCheckpoint checkpoint = mongoTemplate.findById(checkpointId, TrendingCheckpoint.class);
+        if (checkpoint != null) {
+            lock.lock();
+            try {
+                double scale = growth(checkpoint.getEpoch());
+                checkpoint.getScores().forEach(score -> adjust(score.getPostId(), score.getScore() * scale));
+            } finally {
+                lock.unlock();
+            }
+            log.info("Trending posts restored from checkpoint, posts: {}", checkpoint.getScores().size());
+            return;
+        }
+
+        // every like is counted as if made when the post was created
+        LocalDateTime cutoff = LocalDateTime.now().minus(halfLife.multipliedBy(8));
+        FieldSelection fields = FieldSelection.parse("likeCount", Post.class, "id", "createdAt");
+        List<Post> recent = postRepository.findNewest(null, rebuildPosts, fields);
+        int counted = 0;
+        for (Post post : recent) {
+            if (post.getCreatedAt().isBefore(cutoff)) {
+                break;
+            }
+            add(post.getId(), createWeight + post.getLikeCount(), post.getCreatedAt());
+            counted++;
+        }
+        log.info("Trending posts rebuilt from recent posts: {}", counted);
+    }
+
+    @Scheduled(
+            initialDelayString = "${freebook.trending.checkpoint-interval:PT1M}",
+            fixedDelayString = "${freebook.trending.checkpoint-interval:PT1M}"
+    )
+    public void checkpoint() {
+        TrendingCheckpoint checkpoint;
+        lock.lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            if (exponent(now) > MAX_EXPONENT) {
+                rebase(now);
+            }
+            List<TrendingCheckpoint.Score> scores = new ArrayList<>(ranking.size());
+            ranking.forEach(entry -> scores.add(new TrendingCheckpoint.Score(entry.postId(), entry.score())));
+            checkpoint = TrendingCheckpoint.builder()
+                    .id(checkpointId)
+                    .epoch(epoch)
+                    .savedAt(now)
+                    .scores(scores)
+                    .build();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            mongoTemplate.save(checkpoint);
+            // checkpoints of instances gone long enough for their scores to have decayed away
+            LocalDateTime stale = checkpoint.getSavedAt().minus(halfLife.multipliedBy(8));
+            mongoTemplate.remove(query(where("savedAt").lt(stale)), TrendingCheckpoint.class);
+        } catch (RuntimeException e) {
+            log.warn("Trending posts checkpoint failed", e);
+        }
+    }
+
+    // moves the epoch to now, dropping posts whose decayed weight is negligible
+    private void rebase(LocalDateTime now) {
+        double scale = Math.pow(2, -exponent(now));
+        List<Entry> rescaled = new ArrayList<>(ranking.size());
+        ranking.forEach(entry -> rescaled.add(new Entry(entry.postId(), entry.score() * scale)));
+        entries.clear();
+        ranking.clear();
+        epoch = now;
+        rescaled.stream()
+                .filter(entry -> entry.score() > 1e-6)
+                .forEach(entry -> {
+                    entries.put(entry.postId(), entry);
+                    ranking.add(entry);
+                });
+    }
+
+    private record Entry(UUID postId, double score) {
+    }
+
+}
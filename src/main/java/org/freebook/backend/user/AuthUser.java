@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
@@ -27,6 +28,8 @@ public class AuthUser implements UserDetails {
     @Indexed(unique = true)
     private String username;
     private String name;
+    // never rendered in logs
+    @ToString.Exclude
     private String password;
     @Indexed(unique = true)
     private String email;
@@ -0,0 +1,64 @@
+package org.freebook.backend.user;
+
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.freebook.backend.configs.ReadThroughCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Cache of {@link AuthUser} by email, used to authenticate requests without a Mongo round trip
+ * for warm users. Entries are evicted whenever an {@link AuthUser} is saved or deleted through
+ * this instance; the TTL bounds staleness for changes made elsewhere.
+ */
+@Component
+public class AuthUserCache extends AbstractMongoEventListener<AuthUser> implements MeterBinder {
+
+    private final AuthUserRepository authUserRepository;
+    // also indexed by id, a save may have changed the email the entry is cached under
+    private final ReadThroughCache<String, AuthUser> cache;
+
+    public AuthUserCache(
+            AuthUserRepository authUserRepository,
+            @Value("${security.auth-cache.max-size:10000}") long maxSize,
+            @Value("${security.auth-cache.ttl:5m}") Duration ttl,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        this.authUserRepository = authUserRepository;
+        this.cache = new ReadThroughCache<>("auth-users", maxSize, ttl, virtualThreads, AuthUser::getId);
+    }
+
+    public AuthUser loadUserByUsername(String email) {
+        return cache.get(email, key -> authUserRepository.findByEmail(key).orElse(null))
+                .orElseThrow(() -> new UsernameNotFoundException("AuthUser not found"));
+    }
+
+    public void evict(String email) {
+        cache.invalidate(email);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        cache.bindTo(registry);
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<AuthUser> event) {
+        AuthUser saved = event.getSource();
+        cache.invalidate(saved.getEmail());
+        cache.invalidateBySecondKey(saved.getId());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<AuthUser> event) {
+        cache.invalidateAll();
+    }
+
+}
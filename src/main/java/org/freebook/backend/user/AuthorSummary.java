@@ -0,0 +1,23 @@
+package org.freebook.backend.user;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Compact view of a {@link User} embedded in post listings and returned by user search, read with a projection.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AuthorSummary {
+
+    private UUID id;
+    private String username;
+    private String name;
+    private String imgUrl;
+
+}
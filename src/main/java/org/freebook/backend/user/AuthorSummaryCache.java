@@ -0,0 +1,67 @@
+package org.freebook.backend.user;
+
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.freebook.backend.configs.ReadThroughCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Cache of {@link AuthorSummary} by user id, so a page of posts resolves all of its authors
+ * with at most one projected {@code $in} query.
+ */
+@Component
+public class AuthorSummaryCache extends AbstractMongoEventListener<User> implements MeterBinder {
+
+    private final UserRepository userRepository;
+    private final ReadThroughCache<UUID, AuthorSummary> cache;
+
+    public AuthorSummaryCache(
+            UserRepository userRepository,
+            @Value("${freebook.author-cache.max-size:10000}") long maxSize,
+            @Value("${freebook.author-cache.ttl:10m}") Duration ttl,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        this.userRepository = userRepository;
+        this.cache = new ReadThroughCache<>("author-summaries", maxSize, ttl, virtualThreads);
+    }
+
+    public Map<UUID, AuthorSummary> findAllById(Collection<UUID> userIds) {
+        return cache.getAll(userIds, missing -> {
+            Map<UUID, AuthorSummary> loaded = new HashMap<>();
+            userRepository.findByIdIn(List.copyOf(missing)).forEach(author -> loaded.put(author.getId(), author));
+            return loaded;
+        });
+    }
+
+    public void evict(UUID userId) {
+        cache.invalidate(userId);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        cache.bindTo(registry);
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<User> event) {
+        cache.invalidate(event.getSource().getId());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<User> event) {
+        cache.invalidateAll();
+    }
+
+}
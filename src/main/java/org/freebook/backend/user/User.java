@@ -1,11 +1,14 @@
 package org.freebook.backend.user;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.freebook.backend.post.Post;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.List;
@@ -20,14 +23,27 @@ public class User {
 
     @Id
     private UUID id;
+    @Indexed(unique = true)
     private UUID accountId;
     private String username;
     private String name;
+    // normalized copies for prefix search, see UserSearchKeys
+    @JsonIgnore
+    @Indexed
+    private String usernameKey;
+    @JsonIgnore
+    @Indexed
+    private List<String> nameKeys;
     private String email;
     private String bio;
     private String imgUrl;
     private String imgId;
-    private List<UUID> likedPosts;
+    // multikey, lets the cleanup of a deleted post find its savers
+    @Indexed
     private List<UUID> savedPosts;
+    // maintained incrementally on post create and delete
+    private long postCount;
+    @Version
+    private Long version;
 
 }
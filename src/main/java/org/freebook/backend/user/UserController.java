@@ -1,14 +1,36 @@
 package org.freebook.backend.user;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
-import org.freebook.backend.configs.JwtService;
+import org.freebook.backend.configs.ETags;
+import org.freebook.backend.configs.FieldSelection;
+import org.freebook.backend.configs.NdjsonExporter;
+import org.freebook.backend.post.CursorPage;
+import org.freebook.backend.post.Like;
+import org.freebook.backend.post.LikeRepository;
+import org.freebook.backend.post.PostBatch;
+import org.freebook.backend.post.PostCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.logging.Logger;
+
+import static org.freebook.backend.configs.SamplingTurboFilter.SAMPLED;
 
 @RestController
 @RequestMapping("/api/v1/users")
@@ -16,64 +38,206 @@ import java.util.logging.Logger;
 public class UserController {
 
     private final UserRepository userRepository;
-    private  final JwtService jwtService;
+    private final LikeRepository likeRepository;
+    private final NdjsonExporter ndjsonExporter;
+    private final PostCache postCache;
+    private final ObjectMapper objectMapper;
+    private final UserProfileCache userProfileCache;
+    private final AuthorSummaryCache authorSummaryCache;
+
+    private static final int MAX_PAGE_SIZE = 100;
 
-    private Logger log = Logger.getLogger(UserController.class.getName());
+    private Logger log = LoggerFactory.getLogger(UserController.class);
 
     @GetMapping("/current")
-    public ResponseEntity getCurrentUser(@RequestHeader("Authorization") String token) {
-        log.info("Get current user");
-        var userEntity = userRepository.findByEmail(jwtService.extractUsername(token.substring(7)));
-        if (userEntity.isEmpty()) {
-            log.info("User not found!");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Internal server error!");
+    public ResponseEntity getCurrentUser(@CurrentUser User user) {
+        log.info(SAMPLED, "Get current user: {}", user.getId());
+        return ResponseEntity.ok(user);
+    }
+
+    @GetMapping("/current/liked")
+    public ResponseEntity getLikedPosts(@CurrentUser User user, @RequestParam int page, @RequestParam int limit) {
+        log.info(SAMPLED, "Get liked posts, page: {} limit: {}", page, limit);
+        page = Math.max(page, 0);
+        limit = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        Slice<Like> likes = likeRepository.findByUserIdOrderByCreatedAtDesc(user.getId(), PageRequest.of(page, limit));
+        log.info(SAMPLED, "Get liked posts completed");
+        return ResponseEntity.ok(likes.getContent().stream().map(Like::getPostId).toList());
+    }
+
+    @GetMapping("/current/saved")
+    public ResponseEntity getSavedPosts(
+            @CurrentUser User user,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor
+    ) {
+        log.info(SAMPLED, "Get saved posts, cursor: {} limit: {}", cursor, limit);
+        SavedCursor after;
+        try {
+            after = cursor == null ? null : SavedCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid cursor: {}", cursor);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid cursor!");
         }
-        log.info("Request complete");
-        return ResponseEntity.ok(userEntity.get());
+        limit = Math.min(Math.max(limit, 1), PostBatch.MAX_SIZE);
+
+        // newest saved first, the list is appended to on save
+        List<UUID> saved = user.getSavedPosts() == null ? List.of() : user.getSavedPosts();
+        int to = after == null ? saved.size() : after.resume(saved);
+        int from = Math.max(to - limit, 0);
+        List<UUID> ids = new ArrayList<>(saved.subList(from, to));
+        Collections.reverse(ids);
+        String nextCursor = from > 0 ? new SavedCursor(saved.get(from), from).encode() : null;
+
+        var posts = postCache.findAllById(new LinkedHashSet<>(ids));
+        log.info(SAMPLED, "Get saved posts completed");
+        return ResponseEntity.ok(PostBatch.of(ids, posts, nextCursor));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity searchUsers(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor
+    ) {
+        log.info(SAMPLED, "Search users: {}, cursor: {} limit: {}", q, cursor, limit);
+        String prefix = UserSearchKeys.normalize(q);
+        if (prefix.isEmpty()) {
+            log.warn("Empty user search");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid query!");
+        }
+        UserCursor after;
+        try {
+            after = cursor == null ? null : UserCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid cursor: {}", cursor);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid cursor!");
+        }
+        limit = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        // one extra user tells whether there is a next page
+        List<AuthorSummary> users = userRepository.searchByPrefix(prefix, after, limit + 1);
+        String nextCursor = null;
+        if (users.size() > limit) {
+            users = users.subList(0, limit);
+            nextCursor = UserCursor.of(users.get(limit - 1)).encode();
+        }
+        log.info(SAMPLED, "Search users completed");
+        return ResponseEntity.ok(new CursorPage<>(users, nextCursor, null));
     }
 
     @GetMapping("/{userId}")
-    public ResponseEntity getUser(@PathVariable UUID userId) {
-        log.info("Getting user with id: " + userId);
-        var userOptional = userRepository.findById(userId);
-        if (userOptional.isEmpty()) {
+    public ResponseEntity getUser(@PathVariable UUID userId, @RequestParam(required = false) String fields) {
+        log.info(SAMPLED, "Getting user with id: {}", userId);
+        FieldSelection selection;
+        try {
+            selection = FieldSelection.parse(fields, User.class, "id");
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid fields: {}", fields);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid fields!");
+        }
+        // the version is read for the entity tag, it is only rendered when selected
+        User user = userRepository.findProjectedById(userId, selection == null ? null : selection.with("version"));
+        if (user == null) {
             log.info("User not found!");
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found!");
         }
-        log.info("User found: " + userOptional.get());
-        return ResponseEntity.ok(userOptional.get());
+        log.info(SAMPLED, "User found: {}", userId);
+        return ResponseEntity.ok()
+                .eTag(ETags.of(user.getVersion()))
+                .body(selection == null ? user : selection.render(user, objectMapper));
     }
 
     @GetMapping("")
     public ResponseEntity<List<User>> getAllUsers() {
         log.info("Getting all users");
-        return ResponseEntity.ok(userRepository.findAll());
+        // cut off at max-items, the ndjson export streams the full collection
+        return ndjsonExporter.firstItems(userRepository::findAllBy);
+    }
+
+    @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(required = false) Integer batchSize) {
+        log.info("Exporting all users");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(ndjsonExporter.export(User.class, batchSize));
     }
 
     @PutMapping("/{userId}")
-    public ResponseEntity updateUser(@PathVariable("userId") UUID userId, @RequestBody UserUpdateRequest request) {
-        log.info("Updating user with id: " + userId);
-        var user = userRepository.findById(userId);
-        if (user.isEmpty()) {
-            log.info("User not found!");
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found!");
-        };
-        User oldUser = user.get();
-        User newUser = User.builder()
-                .id(oldUser.getId())
-                .accountId(oldUser.getAccountId())
-                .username(oldUser.getUsername())
-                .name(request.getName())
-                .email(request.getEmail())
-                .bio(request.getBio())
-                .imgUrl(request.getImgUrl())
-                .imgId(request.getImgId())
-                .likedPosts(oldUser.getLikedPosts())
-                .savedPosts(oldUser.getSavedPosts())
-                .build();
-        newUser = userRepository.save(newUser);
-        log.info("User updated: " + newUser);
-        return ResponseEntity.status(HttpStatus.OK).body("User updated!");
+    public ResponseEntity updateUser(
+            @PathVariable("userId") UUID userId,
+            @RequestBody UserUpdateRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        log.info("Updating user with id: {}", userId);
+        return updateUserFields(userId, ifMatch, request.toChanges(false));
+    }
+
+    @PatchMapping("/{userId}")
+    public ResponseEntity patchUser(
+            @PathVariable("userId") UUID userId,
+            @RequestBody UserUpdateRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        log.info("Patching user with id: {}", userId);
+        return updateUserFields(userId, ifMatch, request.toChanges(true));
+    }
+
+    // $set of only the changed fields, the saved posts list is never rewritten
+    private ResponseEntity updateUserFields(UUID userId, String ifMatch, Map<String, Object> changes) {
+        Long expectedVersion;
+        try {
+            expectedVersion = ETags.parseIfMatch(ifMatch);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid If-Match: {}", ifMatch);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid If-Match!");
+        }
+        Long version = userRepository.updateFields(userId, expectedVersion, changes);
+        if (version == null) {
+            if (!userRepository.existsById(userId)) {
+                log.info("User not found!");
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found!");
+            }
+            log.warn("User modified meanwhile: {}", userId);
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body("User was modified!");
+        }
+        userProfileCache.evictByUserId(userId);
+        authorSummaryCache.evict(userId);
+        log.info("User updated: {}", userId);
+        return ResponseEntity.status(HttpStatus.OK).eTag(ETags.of(version)).body("User updated!");
+    }
+
+    /**
+     * Position in the saved posts listing, the last returned post and its index in {@code savedPosts}.
+     * Paging resumes after the post itself, so saves and unsaves between pages shift nothing.
+     * The index is only used when the post was unsaved meanwhile.
+     */
+    private record SavedCursor(UUID postId, int index) {
+
+        // end (exclusive) of the next page in savedPosts
+        int resume(List<UUID> saved) {
+            int position = saved.lastIndexOf(postId);
+            return position >= 0 ? position : Math.min(index, saved.size());
+        }
+
+        String encode() {
+            String raw = postId + "|" + index;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static SavedCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                int index = Integer.parseInt(raw.substring(separator + 1));
+                if (index < 0) {
+                    throw new IllegalArgumentException("Invalid cursor");
+                }
+                return new SavedCursor(UUID.fromString(raw.substring(0, separator)), index);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+        }
+
     }
 
 }
@@ -0,0 +1,46 @@
+package org.freebook.backend.user;
+
+
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a user search listing, the (usernameKey, id) of the last user returned.
+ * Clients receive it as an opaque url safe string.
+ */
+@Value
+public class UserCursor {
+
+    String usernameKey;
+    UUID id;
+
+    /**
+     * The search key of a summary is the normal form of its username, which never changes.
+     */
+    public static UserCursor of(AuthorSummary user) {
+        return new UserCursor(UserSearchKeys.normalize(user.getUsername()), user.getId());
+    }
+
+    public String encode() {
+        // the id goes first, the key may contain the separator
+        String raw = id + "|" + usernameKey;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor was not produced by {@link #encode()}
+     */
+    public static UserCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new UserCursor(raw.substring(separator + 1), UUID.fromString(raw.substring(0, separator)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+package org.freebook.backend.user;
+
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.freebook.backend.configs.ReadThroughCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Cache of profile {@link User} documents by {@code accountId}. Entries are evicted whenever a
+ * {@link User} is saved or deleted through this instance, writes that bypass the repository must
+ * call {@link #evict(UUID)}, or {@link #evictByUserId(UUID)} when only the profile id is at hand.
+ */
+@Component
+public class UserProfileCache extends AbstractMongoEventListener<User> implements MeterBinder {
+
+    private final UserRepository userRepository;
+    // also indexed by profile id
+    private final ReadThroughCache<UUID, User> cache;
+
+    public UserProfileCache(
+            UserRepository userRepository,
+            @Value("${freebook.user-cache.max-size:10000}") long maxSize,
+            @Value("${freebook.user-cache.ttl:5m}") Duration ttl,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        this.userRepository = userRepository;
+        this.cache = new ReadThroughCache<>("user-profiles", maxSize, ttl, virtualThreads, User::getId);
+    }
+
+    public Optional<User> getByAccountId(UUID accountId) {
+        return cache.get(accountId, key -> userRepository.findByAccountId(key).orElse(null));
+    }
+
+    public void evict(UUID accountId) {
+        cache.invalidate(accountId);
+    }
+
+    public void evictByUserId(UUID userId) {
+        cache.invalidateBySecondKey(userId);
+    }
+
+    public void evictByUserIds(Collection<UUID> userIds) {
+        cache.invalidateAllBySecondKey(userIds);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        cache.bindTo(registry);
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<User> event) {
+        cache.invalidate(event.getSource().getAccountId());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<User> event) {
+        cache.invalidateAll();
+    }
+
+}
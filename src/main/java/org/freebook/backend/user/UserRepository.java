@@ -1,14 +1,23 @@
 package org.freebook.backend.user;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface UserRepository extends MongoRepository<User, UUID> {
+public interface UserRepository extends MongoRepository<User, UUID>, UserRepositoryCustom {
 
     Optional<User> findByEmail(String email);
 
+    Optional<User> findByAccountId(UUID accountId);
+
+    List<User> findAllBy(Pageable pageable);
+
+    List<AuthorSummary> findByIdIn(Collection<UUID> ids);
+
 }
@@ -0,0 +1,58 @@
+package org.freebook.backend.user;
+
+
+import org.freebook.backend.configs.FieldSelection;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Atomic single document updates on the post id lists of {@link User},
+ * implemented in {@link UserRepositoryCustomImpl}.
+ * These bypass the mapping lifecycle events, callers must evict the {@link UserProfileCache}.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * @return false if the post was already in the user's saved posts
+     */
+    boolean addSavedPost(UUID userId, UUID postId);
+
+    /**
+     * @return false if the post was not in the user's saved posts
+     */
+    boolean removeSavedPost(UUID userId, UUID postId);
+
+    void incrementPostCount(UUID userId, long delta);
+
+    /**
+     * Reads only the post count of the user.
+     *
+     * @return 0 if the user does not exist
+     */
+    long getPostCount(UUID userId);
+
+    /**
+     * @param fields null reads the whole document
+     * @return null if the user does not exist
+     */
+    User findProjectedById(UUID userId, FieldSelection fields);
+
+    /**
+     * Sets the given fields and bumps the version, if the user is at the expected version.
+     *
+     * @param expectedVersion null to update any version
+     * @return the new version, or null if the user does not exist or is at another version
+     */
+    Long updateFields(UUID userId, Long expectedVersion, Map<String, Object> changes);
+
+    /**
+     * Users whose username or a word of whose name starts with the normalized prefix, strictly
+     * after the cursor in (usernameKey, id) order.
+     *
+     * @param after null for the first page
+     */
+    List<AuthorSummary> searchByPrefix(String prefix, UserCursor after, int limit);
+
+}
@@ -0,0 +1,118 @@
+package org.freebook.backend.user;
+
+
+import lombok.RequiredArgsConstructor;
+import org.freebook.backend.configs.ETags;
+import org.freebook.backend.configs.FieldSelection;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@RequiredArgsConstructor
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    // counters and lists are updated by collection name, an update typed to User would also bump the entity tag version
+    private static final String USERS = "user";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean addSavedPost(UUID userId, UUID postId) {
+        return addToList(userId, "savedPosts", postId);
+    }
+
+    @Override
+    public boolean removeSavedPost(UUID userId, UUID postId) {
+        return removeFromList(userId, "savedPosts", postId);
+    }
+
+    @Override
+    public void incrementPostCount(UUID userId, long delta) {
+        mongoTemplate.updateFirst(
+                query(where("_id").is(userId)),
+                new Update().inc("postCount", delta),
+                USERS
+        );
+    }
+
+    @Override
+    public long getPostCount(UUID userId) {
+        var query = query(where("id").is(userId));
+        query.fields().include("postCount");
+        User user = mongoTemplate.findOne(query, User.class);
+        return user == null ? 0 : user.getPostCount();
+    }
+
+    @Override
+    public User findProjectedById(UUID userId, FieldSelection fields) {
+        var query = query(where("id").is(userId));
+        return mongoTemplate.findOne(fields == null ? query : fields.applyTo(query), User.class);
+    }
+
+    @Override
+    public Long updateFields(UUID userId, Long expectedVersion, Map<String, Object> changes) {
+        Update update = new Update().inc("version", 1);
+        changes.forEach(update::set);
+        // the saved posts list can be long, read back only the version
+        var query = query(where("id").is(userId));
+        if (expectedVersion != null) {
+            query.addCriteria(ETags.versionIs(expectedVersion));
+        }
+        query.fields().include("version");
+        User updated = mongoTemplate.findAndModify(
+                query,
+                update,
+                FindAndModifyOptions.options().returnNew(true),
+                User.class
+        );
+        return updated == null ? null : updated.getVersion();
+    }
+
+    @Override
+    public List<AuthorSummary> searchByPrefix(String prefix, UserCursor after, int limit) {
+        // anchored literal prefixes are index range scans, the matches are sorted top-k by the limit
+        String anchored = "^" + Pattern.quote(prefix);
+        Criteria matching = new Criteria().orOperator(
+                where("usernameKey").regex(anchored),
+                where("nameKeys").regex(anchored)
+        );
+        Criteria criteria = after == null ? matching : new Criteria().andOperator(matching, new Criteria().orOperator(
+                where("usernameKey").gt(after.getUsernameKey()),
+                where("usernameKey").is(after.getUsernameKey()).and("_id").gt(after.getId())
+        ));
+        var query = query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "usernameKey", "_id"))
+                .limit(limit);
+        query.fields().include("id", "username", "name", "imgUrl");
+        return mongoTemplate.find(query, AuthorSummary.class, "user");
+    }
+
+    private boolean addToList(UUID userId, String field, UUID postId) {
+        var result = mongoTemplate.updateFirst(
+                query(where("_id").is(userId).and(field).ne(postId)),
+                new Update().addToSet(field, postId),
+                USERS
+        );
+        return result.getModifiedCount() > 0;
+    }
+
+    private boolean removeFromList(UUID userId, String field, UUID postId) {
+        var result = mongoTemplate.updateFirst(
+                query(where("_id").is(userId).and(field).is(postId)),
+                new Update().pull(field, postId),
+                USERS
+        );
+        return result.getModifiedCount() > 0;
+    }
+
+}
@@ -0,0 +1,45 @@
+package org.freebook.backend.user;
+
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Normal form of usernames and names for prefix search: accents stripped, lower case, single spaces.
+ * Queries must be normalized the same way as the stored keys.
+ */
+public final class UserSearchKeys {
+
+    private UserSearchKeys() {
+    }
+
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        return decomposed.replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT)
+                .trim()
+                .replaceAll("\\s+", " ");
+    }
+
+    /**
+     * The normalized name and every suffix of it starting at a word, so a prefix of any word matches.
+     */
+    public static List<String> nameKeys(String name) {
+        String normalized = normalize(name);
+        List<String> keys = new ArrayList<>();
+        if (normalized.isEmpty()) {
+            return keys;
+        }
+        keys.add(normalized);
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            keys.add(normalized.substring(i + 1));
+        }
+        return keys;
+    }
+
+}
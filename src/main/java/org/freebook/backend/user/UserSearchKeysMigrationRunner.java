@@ -0,0 +1,64 @@
+package org.freebook.backend.user;
+
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * One-off backfill of the search keys of users created before they were stored.
+ * Enable with {@code freebook.migrations.user-search.enabled=true}, it recomputes the keys
+ * from username and name so it is safe to re-run.
+ */
+@Component
+@ConditionalOnProperty(name = "freebook.migrations.user-search.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class UserSearchKeysMigrationRunner implements ApplicationRunner {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${freebook.migrations.user-search.batch-size:1000}")
+    private int batchSize;
+
+    private Logger log = LoggerFactory.getLogger(UserSearchKeysMigrationRunner.class);
+
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("Backfilling user search keys");
+        Query users = new Query();
+        users.fields().include("id", "username", "name");
+        long migrated = 0;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        int pending = 0;
+        try (var stream = mongoTemplate.stream(users, User.class)) {
+            for (User user : (Iterable<User>) stream::iterator) {
+                bulk.updateOne(query(where("id").is(user.getId())), new Update()
+                        .set("usernameKey", UserSearchKeys.normalize(user.getUsername()))
+                        .set("nameKeys", UserSearchKeys.nameKeys(user.getName())));
+                migrated++;
+                if (++pending == batchSize) {
+                    bulk.execute();
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) {
+            bulk.execute();
+        }
+        log.info("User search keys backfilled, users: {}", migrated);
+    }
+
+}
@@ -7,6 +7,8 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Document(collection = "user")
 @Data
@@ -21,4 +23,20 @@ public class UserUpdateRequest {
     private String imgUrl;
     private String imgId;
 
+    /**
+     * Fields to {@code $set}, all editable fields for a replacement or only the given ones for a patch.
+     */
+    public Map<String, Object> toChanges(boolean partial) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        if (!partial || name != null) {
+            changes.put("name", name);
+            changes.put("nameKeys", UserSearchKeys.nameKeys(name));
+        }
+        if (!partial || email != null) changes.put("email", email);
+        if (!partial || bio != null) changes.put("bio", bio);
+        if (!partial || imgUrl != null) changes.put("imgUrl", imgUrl);
+        if (!partial || imgId != null) changes.put("imgId", imgId);
+        return changes;
+    }
+
 }
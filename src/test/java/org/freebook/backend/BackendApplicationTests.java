@@ -3,7 +3,13 @@ package org.freebook.backend;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// no database or environment in the test environment, fail background queries fast
+@SpringBootTest(properties = {
+		"spring.data.mongodb.uri=mongodb://localhost:27017/?serverSelectionTimeoutMS=500",
+		"spring.data.mongodb.database=freebook_test",
+		"security.jwt.secret-key=AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA=",
+		"management.server.port=-1"
+})
 class BackendApplicationTests {
 
 	@Test
@@ -0,0 +1,74 @@
+package org.freebook.backend.configs;
+
+import org.freebook.backend.user.AuthUser;
+import org.freebook.backend.user.AuthUserCache;
+import org.freebook.backend.user.UserRoles;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.http.HttpHeaders;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+// the management server on a random localhost port, as deployed
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"spring.data.mongodb.uri=mongodb://localhost:27017/?serverSelectionTimeoutMS=500",
+		"spring.data.mongodb.database=freebook_test",
+		"security.jwt.secret-key=AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA=",
+		"management.server.port=0",
+		"management.health.mongo.enabled=false"
+})
+class ActuatorSecurityTest {
+
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	@LocalManagementPort
+	private int managementPort;
+	@Autowired
+	private JwtService jwtService;
+	@MockBean
+	private AuthUserCache authUserCache;
+
+	@Test
+	void healthIsOpen() throws Exception {
+		assertThat(status("/actuator/health", null)).isEqualTo(200);
+	}
+
+	@Test
+	void metricsNeedAnAdmin() throws Exception {
+		assertThat(status("/actuator/metrics", null)).isEqualTo(403);
+		assertThat(status("/actuator/prometheus", user(UserRoles.USER))).isEqualTo(403);
+		assertThat(status("/actuator/metrics", user(UserRoles.ADMIN))).isEqualTo(200);
+	}
+
+	private AuthUser user(UserRoles role) {
+		String name = role.name().toLowerCase();
+		AuthUser user = AuthUser.builder()
+				.id(UUID.randomUUID())
+				.username(name)
+				.email(name + "@freebook.org")
+				.password("{noop}unused")
+				.role(role)
+				.build();
+		when(authUserCache.loadUserByUsername(user.getEmail())).thenReturn(user);
+		return user;
+	}
+
+	private int status(String path, AuthUser user) throws Exception {
+		HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + managementPort + path));
+		if (user != null) {
+			request.header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtService.generateToken(user));
+		}
+		return client.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+	}
+
+}
@@ -0,0 +1,48 @@
+package org.freebook.backend.configs;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ETagsTest {
+
+	@Test
+	void unversionedDocumentsAreVersionZero() {
+		assertThat(ETags.of(null)).isEqualTo("\"0\"");
+		assertThat(ETags.of(7L)).isEqualTo("\"7\"");
+	}
+
+	@Test
+	void parsesTheTagsItProduces() {
+		assertThat(ETags.parseIfMatch(ETags.of(7L))).isEqualTo(7L);
+		assertThat(ETags.parseIfMatch(" W/\"3\" ")).isEqualTo(3L);
+	}
+
+	@Test
+	void anyVersionMatchesWithoutATag() {
+		assertThat(ETags.parseIfMatch(null)).isNull();
+		assertThat(ETags.parseIfMatch(" ")).isNull();
+		assertThat(ETags.parseIfMatch("*")).isNull();
+	}
+
+	@Test
+	void rejectsForeignTags() {
+		assertThatThrownBy(() -> ETags.parseIfMatch("7")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> ETags.parseIfMatch("\"")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> ETags.parseIfMatch("\"abc\"")).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void versionZeroAlsoMatchesUnversionedDocuments() {
+		assertThat(ETags.versionIs(3).getCriteriaObject()).isEqualTo(new Document("version", 3L));
+		assertThat(ETags.versionIs(0).getCriteriaObject()).isEqualTo(new Document("$or", List.of(
+				new Document("version", 0L),
+				new Document("version", new Document("$exists", false))
+		)));
+	}
+
+}
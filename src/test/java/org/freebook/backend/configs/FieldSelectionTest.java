@@ -0,0 +1,62 @@
+package org.freebook.backend.configs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.Document;
+import org.freebook.backend.user.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FieldSelectionTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void noSelectionWithoutFields() {
+		assertThat(FieldSelection.parse(null, User.class, "id")).isNull();
+		assertThat(FieldSelection.parse(" ", User.class, "id")).isNull();
+	}
+
+	@Test
+	void rejectsUnknownFields() {
+		assertThatThrownBy(() -> FieldSelection.parse("name,password", User.class))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("password");
+	}
+
+	@Test
+	void projectsSelectedAndAlwaysIncludedFields() {
+		FieldSelection selection = FieldSelection.parse("name, bio", User.class, "id").with("postCount");
+
+		Query query = selection.applyTo(new Query());
+
+		assertThat(query.getFieldsObject()).isEqualTo(new Document("id", 1).append("name", 1)
+				.append("bio", 1).append("postCount", 1));
+	}
+
+	@Test
+	void rendersOnlySelectedAndExtraFields() {
+		User user = User.builder()
+				.id(UUID.randomUUID())
+				.name("Ada")
+				.bio("hi")
+				.email("ada@freebook.org")
+				.savedPosts(List.of())
+				.build();
+		FieldSelection selection = FieldSelection.parse("name,nameKeys", User.class, "id");
+
+		var rendered = selection.render(user, objectMapper, "email");
+
+		// nameKeys is not serialized, selecting it renders nothing
+		assertThat(rendered).containsOnlyKeys("id", "name", "email");
+		assertThat(rendered.get("name")).isEqualTo("Ada");
+		assertThat(selection.renderAll(List.of(user, user), objectMapper)).hasSize(2)
+				.allSatisfy(each -> assertThat(each).containsOnlyKeys("id", "name"));
+	}
+
+}
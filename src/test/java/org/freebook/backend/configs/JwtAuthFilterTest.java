@@ -0,0 +1,100 @@
+package org.freebook.backend.configs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.freebook.backend.user.AuthUser;
+import org.freebook.backend.user.AuthUserCache;
+import org.freebook.backend.user.UserRoles;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JwtAuthFilterTest {
+
+	private final AuthUser authUser = AuthUser.builder()
+			.id(UUID.randomUUID())
+			.username("ada")
+			.email("ada@freebook.org")
+			.password("{noop}unused")
+			.role(UserRoles.USER)
+			.build();
+
+	private final AuthUserCache authUserCache = mock(AuthUserCache.class);
+	private JwtService jwtService;
+	private JwtAuthFilter filter;
+
+	@BeforeEach
+	void setUp() {
+		jwtService = spy(new JwtService(new SimpleMeterRegistry()));
+		ReflectionTestUtils.setField(jwtService, "secretKey", Base64.getEncoder().encodeToString(new byte[32]));
+		ReflectionTestUtils.setField(jwtService, "tokenLifespan", 3_600_000L);
+		jwtService.init();
+		filter = new JwtAuthFilter(jwtService, authUserCache, new SimpleMeterRegistry());
+		when(authUserCache.loadUserByUsername("ada@freebook.org")).thenReturn(authUser);
+	}
+
+	@AfterEach
+	void clearContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void parsesTheTokenOnceAndExposesItsClaims() throws Exception {
+		MockHttpServletRequest request = bearer(jwtService.generateToken(authUser));
+
+		filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+		verify(jwtService, times(1)).parseToken(any());
+		assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).isEqualTo(authUser);
+		JwtPrincipal principal = (JwtPrincipal) request.getAttribute(JwtAuthFilter.PRINCIPAL_ATTRIBUTE);
+		assertThat(principal.getSubject()).isEqualTo("ada@freebook.org");
+		assertThat(principal.isExpired()).isFalse();
+	}
+
+	@Test
+	void tamperedTokensAreNotAuthenticated() throws Exception {
+		String token = jwtService.generateToken(authUser);
+		MockHttpServletRequest request = bearer(token.substring(0, token.length() - 2) + "xx");
+		MockFilterChain chain = new MockFilterChain();
+
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+		assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+		assertThat(request.getAttribute(JwtAuthFilter.PRINCIPAL_ATTRIBUTE)).isNull();
+		assertThat(chain.getRequest()).isSameAs(request);
+		verify(authUserCache, never()).loadUserByUsername(any());
+	}
+
+	@Test
+	void requestsWithoutBearerTokenPassThrough() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+
+		filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+		verify(jwtService, never()).parseToken(any());
+		assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+	}
+
+	private static MockHttpServletRequest bearer(String token) {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("Authorization", "Bearer " + token);
+		return request;
+	}
+
+}
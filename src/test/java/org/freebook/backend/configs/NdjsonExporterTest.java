@@ -0,0 +1,99 @@
+package org.freebook.backend.configs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NdjsonExporterTest {
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final NdjsonExporter exporter = new NdjsonExporter(mongoTemplate, new ObjectMapper());
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(exporter, "defaultBatchSize", 500);
+		ReflectionTestUtils.setField(exporter, "timeout", Duration.ofMinutes(30));
+		ReflectionTestUtils.setField(exporter, "maxItems", 3);
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+	}
+
+	@AfterEach
+	void tearDown() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Test
+	void streamsOneDocumentPerLineFlushingPerBatch() throws Exception {
+		when(mongoTemplate.stream(any(Query.class), eq(Map.class)))
+				.thenReturn(IntStream.range(0, 5).mapToObj(i -> (Map) Map.of("n", i)));
+		FlushCountingStream out = new FlushCountingStream();
+
+		exporter.export(Map.class, 2).writeTo(out);
+
+		assertThat(out.toString(StandardCharsets.UTF_8).split("\n"))
+				.containsExactly("{\"n\":0}", "{\"n\":1}", "{\"n\":2}", "{\"n\":3}", "{\"n\":4}");
+		// once per full batch, the rest is written out on close
+		assertThat(out.flushes).isEqualTo(2);
+		ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+		verify(mongoTemplate).stream(query.capture(), eq(Map.class));
+		assertThat(query.getValue().getMeta().getCursorBatchSize()).isEqualTo(2);
+	}
+
+	@Test
+	void batchSizesAreClamped() throws Exception {
+		when(mongoTemplate.stream(any(Query.class), eq(Map.class))).thenReturn(Stream.empty());
+
+		exporter.export(Map.class, 1_000_000).writeTo(new ByteArrayOutputStream());
+
+		ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+		verify(mongoTemplate).stream(query.capture(), eq(Map.class));
+		assertThat(query.getValue().getMeta().getCursorBatchSize()).isEqualTo(10_000);
+	}
+
+	@Test
+	void firstItemsSignalsTruncation() {
+		var truncated = exporter.firstItems((Pageable page) -> IntStream.range(0, page.getPageSize()).boxed().toList());
+		var complete = exporter.firstItems((Pageable page) -> List.of(1, 2, 3));
+
+		assertThat(truncated.getBody()).containsExactly(0, 1, 2);
+		assertThat(truncated.getHeaders().getFirst(NdjsonExporter.TRUNCATED_HEADER)).isEqualTo("true");
+		assertThat(complete.getBody()).containsExactly(1, 2, 3);
+		assertThat(complete.getHeaders().containsKey(NdjsonExporter.TRUNCATED_HEADER)).isFalse();
+	}
+
+	private static class FlushCountingStream extends ByteArrayOutputStream {
+
+		private int flushes;
+
+		@Override
+		public void flush() {
+			flushes++;
+		}
+
+	}
+
+}
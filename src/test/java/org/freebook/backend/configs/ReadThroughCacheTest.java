@@ -0,0 +1,100 @@
+package org.freebook.backend.configs;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReadThroughCacheTest {
+
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@Test
+	void loadsOnceAndDoesNotCacheMissingValues() {
+		ReadThroughCache<String, String> cache = new ReadThroughCache<>("test", 10, Duration.ofMinutes(1), false);
+
+		assertThat(cache.get("a", this::load)).contains("A");
+		assertThat(cache.get("a", this::load)).contains("A");
+		assertThat(cache.get("missing", key -> null)).isEmpty();
+
+		assertThat(loads).hasValue(1);
+		assertThat(cache.size()).isEqualTo(1);
+		assertThat(cache.stats().hitCount()).isEqualTo(1);
+	}
+
+	@Test
+	void invalidatedKeysAreLoadedAgain() {
+		ReadThroughCache<String, String> cache = new ReadThroughCache<>("test", 10, Duration.ofMinutes(1), false);
+		cache.get("a", this::load);
+
+		cache.invalidate("a");
+
+		assertThat(cache.getIfPresent("a")).isEmpty();
+		cache.get("a", this::load);
+		assertThat(loads).hasValue(2);
+	}
+
+	@Test
+	void loadsEveryMissOfABatchWithOneCall() {
+		ReadThroughCache<String, String> cache = new ReadThroughCache<>("test", 10, Duration.ofMinutes(1), false);
+		cache.get("a", this::load);
+		AtomicInteger batches = new AtomicInteger();
+
+		Map<String, String> found = cache.getAll(List.of("a", "b", "c"), missing -> {
+			batches.incrementAndGet();
+			assertThat(List.<String>copyOf(missing)).containsExactlyInAnyOrder("b", "c");
+			Map<String, String> loaded = new HashMap<>();
+			loaded.put("b", "B");
+			return loaded;
+		});
+
+		assertThat(found).containsOnly(Map.entry("a", "A"), Map.entry("b", "B"));
+		assertThat(batches).hasValue(1);
+	}
+
+	@Test
+	void invalidatesBySecondKeyWithoutAScan() {
+		ReadThroughCache<String, String> cache =
+				new ReadThroughCache<>("test", 10, Duration.ofMinutes(1), false, value -> "id-" + value);
+		cache.get("a", this::load);
+		cache.getAll(List.of("b"), missing -> Map.of("b", "B"));
+
+		cache.invalidateBySecondKey("id-A");
+		cache.invalidateAllBySecondKey(List.of("id-B", "id-unknown"));
+
+		assertThat(cache.getIfPresent("a")).isEmpty();
+		assertThat(cache.getIfPresent("b")).isEmpty();
+	}
+
+	@Test
+	void rethrowsWhatTheLoaderThrew() {
+		ReadThroughCache<String, String> cache = new ReadThroughCache<>("test", 10, Duration.ofMinutes(1), false);
+
+		assertThatThrownBy(() -> cache.get("a", key -> {
+			throw new IllegalStateException("down");
+		})).isInstanceOf(IllegalStateException.class).hasMessage("down");
+		assertThat(cache.get("a", this::load)).contains("A");
+	}
+
+	@Test
+	void loadsOnVirtualThreads() {
+		ReadThroughCache<String, String> cache = new ReadThroughCache<>("test", 10, Duration.ofMinutes(1), true);
+
+		assertThat(cache.get("a", key -> Thread.currentThread().isVirtual() ? "virtual" : "caller")).contains("virtual");
+		assertThatThrownBy(() -> cache.get("b", key -> {
+			throw new IllegalStateException("down");
+		})).isInstanceOf(IllegalStateException.class).hasMessage("down");
+	}
+
+	private String load(String key) {
+		loads.incrementAndGet();
+		return key.toUpperCase();
+	}
+
+}
@@ -0,0 +1,53 @@
+package org.freebook.backend.configs;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.freebook.backend.configs.SamplingTurboFilter.SAMPLED;
+
+class SamplingTurboFilterTest {
+
+	private final Logger logger = new LoggerContext().getLogger(SamplingTurboFilterTest.class);
+	private final SamplingTurboFilter filter = new SamplingTurboFilter();
+
+	@Test
+	void keepsOneInRatePerFormat() {
+		filter.setRate(3);
+
+		List<FilterReply> feed = decide(Level.INFO, "Get feed", 6);
+		List<FilterReply> post = decide(Level.INFO, "Get post", 2);
+
+		assertThat(feed).containsExactly(
+				FilterReply.NEUTRAL, FilterReply.DENY, FilterReply.DENY,
+				FilterReply.NEUTRAL, FilterReply.DENY, FilterReply.DENY
+		);
+		assertThat(post).containsExactly(FilterReply.NEUTRAL, FilterReply.DENY);
+	}
+
+	@Test
+	void neverSamplesWarningsOrUnmarkedEvents() {
+		filter.setRate(100);
+
+		assertThat(decide(Level.WARN, "Post not found: {}", 3)).containsOnly(FilterReply.NEUTRAL);
+		assertThat(filter.decide(null, logger, Level.INFO, "Creating new post", null, null))
+				.isEqualTo(FilterReply.NEUTRAL);
+		assertThat(filter.decide(null, logger, Level.INFO, "Creating new post", null, null))
+				.isEqualTo(FilterReply.NEUTRAL);
+	}
+
+	private List<FilterReply> decide(Level level, String format, int times) {
+		List<FilterReply> replies = new ArrayList<>();
+		for (int i = 0; i < times; i++) {
+			replies.add(filter.decide(SAMPLED, logger, level, format, null, null));
+		}
+		return replies;
+	}
+
+}
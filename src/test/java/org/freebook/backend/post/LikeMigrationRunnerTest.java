@@ -0,0 +1,134 @@
+package org.freebook.backend.post;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.freebook.backend.configs.MongoIndexConfigs;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LikeMigrationRunnerTest {
+
+	private static final LocalDateTime CREATED = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final MongoIndexConfigs mongoIndexConfigs = mock(MongoIndexConfigs.class);
+	private final BulkOperations likes = mock(BulkOperations.class);
+	private final BulkOperations counts = mock(BulkOperations.class);
+	private final List<Like> inserted = new ArrayList<>();
+	private final LikeMigrationRunner runner = new LikeMigrationRunner(mongoTemplate, mongoIndexConfigs);
+
+	private final UUID postId = UUID.randomUUID();
+	private final UUID postSideUser = UUID.randomUUID();
+	private final UUID userSideUser = UUID.randomUUID();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(runner, "batchSize", 100);
+		LikeMigrationRunner.LegacyPost post = legacyPost(List.of(postSideUser));
+		LikeMigrationRunner.LegacyUser user = new LikeMigrationRunner.LegacyUser();
+		user.setId(userSideUser);
+		// the like only the user side kept, and one of a deleted post
+		user.setLikedPosts(List.of(postId, UUID.randomUUID()));
+
+		when(mongoTemplate.stream(any(Query.class), eq(LikeMigrationRunner.LegacyPost.class), eq("post")))
+				.thenReturn(Stream.of(post));
+		when(mongoTemplate.stream(any(Query.class), eq(LikeMigrationRunner.LegacyUser.class), eq("user")))
+				.thenReturn(Stream.of(user));
+		when(mongoTemplate.find(any(Query.class), eq(LikeMigrationRunner.LegacyPost.class), eq("post")))
+				.thenReturn(List.of(legacyPost(null)));
+		when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Like.class)).thenReturn(likes);
+		when(likes.insert(anyList())).thenAnswer(invocation -> {
+			inserted.addAll(invocation.getArgument(0));
+			return likes;
+		});
+		LikeMigrationRunner.PostLikeCount count = new LikeMigrationRunner.PostLikeCount();
+		count.setId(postId);
+		count.setCount(2);
+		when(mongoTemplate.aggregateStream(any(Aggregation.class), eq(Like.class), eq(LikeMigrationRunner.PostLikeCount.class)))
+				.thenReturn(Stream.of(count));
+		when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, "post")).thenReturn(counts);
+	}
+
+	@Test
+	void migratesTheUnionOfBothSidesBeforeDroppingEither() {
+		runner.run(null);
+
+		assertThat(inserted).extracting(Like::getPostId, Like::getUserId).containsExactlyInAnyOrder(
+				tuple(postId, postSideUser),
+				tuple(postId, userSideUser)
+		);
+		assertThat(inserted).allSatisfy(like -> assertThat(like.getCreatedAt()).isEqualTo(CREATED));
+		verify(counts).updateOne(any(Query.class), eq(new Update().set("likeCount", 2L)));
+		InOrder order = inOrder(mongoIndexConfigs, likes, counts, mongoTemplate);
+		order.verify(mongoIndexConfigs).ensureIndexes(Like.class);
+		order.verify(likes, times(2)).execute();
+		order.verify(counts).execute();
+		order.verify(mongoTemplate).updateMulti(any(Query.class), eq(new Update().unset("likedList")), eq("post"));
+		order.verify(mongoTemplate).updateMulti(any(Query.class), eq(new Update().unset("likedPosts")), eq("user"));
+	}
+
+	@Test
+	void likesInsertedAlreadyAreSkipped() {
+		when(likes.execute()).thenThrow(bulkFailure(11000));
+
+		runner.run(null);
+
+		verify(mongoTemplate).updateMulti(any(Query.class), eq(new Update().unset("likedPosts")), eq("user"));
+	}
+
+	@Test
+	void otherInsertFailuresKeepBothArrays() {
+		when(likes.execute()).thenThrow(bulkFailure(2));
+
+		assertThatThrownBy(() -> runner.run(null)).isInstanceOf(BulkOperationException.class);
+
+		verify(mongoTemplate, never()).updateMulti(any(Query.class), eq(new Update().unset("likedList")), eq("post"));
+		verify(mongoTemplate, never()).updateMulti(any(Query.class), eq(new Update().unset("likedPosts")), eq("user"));
+	}
+
+	private LikeMigrationRunner.LegacyPost legacyPost(List<UUID> likedList) {
+		LikeMigrationRunner.LegacyPost post = new LikeMigrationRunner.LegacyPost();
+		post.setId(postId);
+		post.setCreatedAt(CREATED);
+		post.setLikedList(likedList);
+		return post;
+	}
+
+	private static BulkOperationException bulkFailure(int code) {
+		BulkWriteResult result = BulkWriteResult.acknowledged(0, 0, 0, 0, List.of(), List.of());
+		return new BulkOperationException("failed", new MongoBulkWriteException(result,
+				List.of(new BulkWriteError(code, "failed", new BsonDocument(), 0)), null, new ServerAddress(), Set.of()));
+	}
+
+}
@@ -0,0 +1,199 @@
+package org.freebook.backend.post;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.DeleteResult;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class LikeWriteBufferTest {
+
+	private static final UUID POST = UUID.randomUUID();
+	private static final UUID OTHER_POST = UUID.randomUUID();
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final BulkOperations likes = mock(BulkOperations.class);
+	private final List<Map<UUID, Long>> counterBulks = new ArrayList<>();
+	// indexes of counter updates failing in the next bulk
+	private Set<Integer> failingCounters = Set.of();
+	private LikeWriteBuffer buffer;
+
+	@BeforeEach
+	void setUp() {
+		when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(Like.class))).thenReturn(likes);
+		when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(Post.class))).thenAnswer(invocation -> counters());
+		buffer = buffer(1000);
+	}
+
+	private LikeWriteBuffer buffer(int maxPending) {
+		return new LikeWriteBuffer(mongoTemplate, mock(PostCache.class), mock(RecentPostWindow.class),
+				mock(PostCleanupWorker.class), true, maxPending, 1000, Duration.ofHours(1));
+	}
+
+	@AfterEach
+	void tearDown() {
+		buffer.shutdown();
+	}
+
+	@Test
+	void repeatedIntentConflicts() {
+		UUID user = UUID.randomUUID();
+
+		assertThat(buffer.offer(POST, user, true)).isTrue();
+		assertThat(buffer.offer(POST, user, true)).isFalse();
+		assertThat(buffer.offer(POST, user, false)).isTrue();
+		assertThat(buffer.pendingSize()).isEqualTo(1);
+		// decided in memory, the collection is left to the unique index at flush
+		verifyNoInteractions(mongoTemplate);
+	}
+
+	@Test
+	void onlyTheLatestIntentIsWritten() {
+		UUID user = UUID.randomUUID();
+		buffer.offer(POST, user, true);
+		buffer.offer(POST, user, false);
+		when(mongoTemplate.remove(any(Query.class), eq(Like.class))).thenReturn(DeleteResult.acknowledged(0));
+
+		buffer.flush();
+
+		verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(Like.class));
+		verify(mongoTemplate).remove(any(Query.class), eq(Like.class));
+		assertThat(counterBulks).isEmpty();
+		assertThat(buffer.pendingSize()).isZero();
+	}
+
+	@Test
+	void aFullBufferIsFlushedOnTheFlusherThread() {
+		LikeWriteBuffer full = buffer(1);
+		List<String> flushedOn = new CopyOnWriteArrayList<>();
+		when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(Like.class))).thenAnswer(invocation -> {
+			flushedOn.add(Thread.currentThread().getName());
+			return likes;
+		});
+		try {
+			full.offer(POST, UUID.randomUUID(), true);
+			full.offer(POST, UUID.randomUUID(), true);
+
+			verify(mongoTemplate, timeout(5000)).bulkOps(any(BulkOperations.BulkMode.class), eq(Like.class));
+			assertThat(flushedOn).containsOnly("like-buffer-flush");
+		} finally {
+			full.shutdown();
+		}
+	}
+
+	@Test
+	void likesAlreadyWrittenAreNotCounted() {
+		buffer.offer(POST, UUID.randomUUID(), true);
+		buffer.offer(POST, UUID.randomUUID(), true);
+		when(likes.execute()).thenThrow(bulkFailure(Set.of(0), 11000));
+
+		buffer.flush();
+
+		assertThat(counterBulks).containsExactly(Map.of(POST, 1L));
+		assertThat(buffer.pendingSize()).isZero();
+	}
+
+	@Test
+	void unlikesCountOnlyWhatWasDeleted() {
+		UUID gone = UUID.randomUUID();
+		UUID held = UUID.randomUUID();
+		buffer.offer(POST, gone, false);
+		buffer.offer(POST, held, false);
+		when(mongoTemplate.remove(any(Query.class), eq(Like.class))).thenReturn(DeleteResult.acknowledged(1));
+
+		buffer.flush();
+
+		assertThat(counterBulks).containsExactly(Map.of(POST, -1L));
+	}
+
+	@Test
+	void failedLikeWritesAreHandedBack() {
+		buffer.offer(POST, UUID.randomUUID(), true);
+		buffer.offer(POST, UUID.randomUUID(), true);
+		when(likes.execute()).thenThrow(bulkFailure(Set.of(1), 2));
+
+		assertThatThrownBy(buffer::flush).isInstanceOf(BulkOperationException.class);
+
+		// the written like is counted, the other one stays buffered
+		assertThat(counterBulks).containsExactly(Map.of(POST, 1L));
+		assertThat(buffer.pendingSize()).isEqualTo(1);
+	}
+
+	@Test
+	void failedCounterUpdatesAloneAreRetried() {
+		buffer.offer(POST, UUID.randomUUID(), true);
+		buffer.offer(OTHER_POST, UUID.randomUUID(), true);
+		failingCounters = Set.of(0);
+
+		assertThatThrownBy(buffer::flush).isInstanceOf(BulkOperationException.class);
+		UUID failed = counterBulks.get(0).keySet().iterator().next();
+		failingCounters = Set.of();
+		buffer.flush();
+
+		assertThat(counterBulks).hasSize(2);
+		assertThat(counterBulks.get(1)).containsExactly(Map.entry(failed, 1L));
+		assertThat(buffer.pendingSize()).isZero();
+	}
+
+	// a counters bulk recording its updates in order, failing the indexes in failingCounters
+	private BulkOperations counters() {
+		BulkOperations counters = mock(BulkOperations.class);
+		Map<UUID, Long> updates = new LinkedHashMap<>();
+		counterBulks.add(updates);
+		when(counters.updateOne(any(Query.class), any(Update.class))).thenAnswer(invocation -> {
+			Query query = invocation.getArgument(0);
+			Update update = invocation.getArgument(1);
+			UUID postId = (UUID) query.getQueryObject().get("id");
+			Document inc = (Document) update.getUpdateObject().get("$inc");
+			updates.put(postId, ((Number) inc.get("likeCount")).longValue());
+			return counters;
+		});
+		when(counters.execute()).thenAnswer(invocation -> {
+			if (!failingCounters.isEmpty()) {
+				throw bulkFailure(failingCounters, 2);
+			}
+			return BulkWriteResult.acknowledged(0, updates.size(), 0, updates.size(), List.of(), List.of());
+		});
+		return counters;
+	}
+
+	private static BulkOperationException bulkFailure(Set<Integer> indexes, int code) {
+		List<BulkWriteError> errors = indexes.stream()
+				.map(index -> new BulkWriteError(code, "failed", new BsonDocument(), index))
+				.toList();
+		BulkWriteResult result = BulkWriteResult.acknowledged(0, 0, 0, 0, List.of(), List.of());
+		return new BulkOperationException("failed",
+				new MongoBulkWriteException(result, errors, null, new ServerAddress(), Set.of()));
+	}
+
+}
@@ -0,0 +1,30 @@
+package org.freebook.backend.post;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostBatchTest {
+
+	@Test
+	void keepsTheRequestedOrderAndReportsMissingIds() {
+		Post first = Post.builder().id(UUID.randomUUID()).build();
+		Post second = Post.builder().id(UUID.randomUUID()).build();
+		UUID gone = UUID.randomUUID();
+
+		PostBatch<Post> batch = PostBatch.of(
+				List.of(second.getId(), gone, first.getId()),
+				Map.of(first.getId(), first, second.getId(), second),
+				null
+		);
+
+		assertThat(batch.getItems()).containsExactly(second, first);
+		assertThat(batch.getMissing()).containsExactly(gone);
+		assertThat(batch.getNextCursor()).isNull();
+	}
+
+}
@@ -0,0 +1,79 @@
+package org.freebook.backend.post;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PostCacheTest {
+
+	private final PostRepository postRepository = mock(PostRepository.class);
+	private final PostCache cache = new PostCache(postRepository, 10, Duration.ofMinutes(1), false);
+
+	@Test
+	void hotPostsAreReadOnce() {
+		Post post = post(1);
+		when(postRepository.findById(post.getId())).thenReturn(Optional.of(post));
+
+		assertThat(cache.findById(post.getId())).contains(post);
+		assertThat(cache.findById(post.getId())).contains(post);
+
+		verify(postRepository, times(1)).findById(post.getId());
+	}
+
+	@Test
+	void atomicWritesEvict() {
+		Post before = post(1);
+		Post after = before.toBuilder().likeCount(2).build();
+		when(postRepository.findById(before.getId())).thenReturn(Optional.of(before));
+		cache.findById(before.getId());
+
+		when(postRepository.findById(before.getId())).thenReturn(Optional.of(after));
+		cache.evict(before.getId());
+
+		assertThat(cache.getIfPresent(before.getId())).isEmpty();
+		assertThat(cache.findById(before.getId())).contains(after);
+	}
+
+	@Test
+	void repositorySavesEvict() {
+		Post post = post(1);
+		when(postRepository.findById(post.getId())).thenReturn(Optional.of(post));
+		cache.findById(post.getId());
+
+		cache.onAfterSave(new AfterSaveEvent<>(post, new Document(), "post"));
+
+		assertThat(cache.getIfPresent(post.getId())).isEmpty();
+	}
+
+	@Test
+	void batchesLoadOnlyTheMisses() {
+		Post cached = post(1);
+		Post missing = post(2);
+		when(postRepository.findById(cached.getId())).thenReturn(Optional.of(cached));
+		when(postRepository.findAllById(anyIterable())).thenReturn(List.of(missing));
+		cache.findById(cached.getId());
+
+		var found = cache.findAllById(List.of(cached.getId(), missing.getId(), UUID.randomUUID()));
+
+		assertThat(found).containsOnlyKeys(cached.getId(), missing.getId());
+		verify(postRepository, times(1)).findAllById(anyIterable());
+		assertThat(cache.getIfPresent(missing.getId())).contains(missing);
+	}
+
+	private static Post post(long likeCount) {
+		return Post.builder().id(UUID.randomUUID()).caption("hello").likeCount(likeCount).build();
+	}
+
+}
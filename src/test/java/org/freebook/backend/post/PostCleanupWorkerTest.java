@@ -0,0 +1,114 @@
+package org.freebook.backend.post;
+
+import org.bson.Document;
+import org.freebook.backend.user.UserProfileCache;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+class PostCleanupWorkerTest {
+
+	private static final int MAX_ATTEMPTS = 3;
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final PostCleanupWorker worker = new PostCleanupWorker(
+			mongoTemplate, mock(UserProfileCache.class), 10, 100, Duration.ZERO, Duration.ofMinutes(5), MAX_ATTEMPTS,
+			Duration.ofMillis(1)
+	);
+
+	private final UUID postId = UUID.randomUUID();
+
+	@Test
+	void doesNotRunBeforeTheApplicationIsReady() throws InterruptedException {
+		Thread.sleep(50);
+
+		verifyNoInteractions(mongoTemplate);
+	}
+
+	@Test
+	void claimsUnleasedTasksAndRemovesThemOnceCleanedUp() {
+		claims(task(1));
+
+		worker.run();
+
+		ArgumentCaptor<Query> claimable = ArgumentCaptor.forClass(Query.class);
+		ArgumentCaptor<Update> claim = ArgumentCaptor.forClass(Update.class);
+		verify(mongoTemplate, times(2)).findAndModify(
+				claimable.capture(), claim.capture(), any(FindAndModifyOptions.class), eq(PostCleanupTask.class)
+		);
+		Document query = claimable.getValue().getQueryObject();
+		assertThat(query).containsEntry("failedAt", null).containsKey("$or");
+		Document update = claim.getValue().getUpdateObject();
+		assertThat(update.get("$inc", Document.class)).containsEntry("attempts", 1);
+		assertThat(update.get("$set", Document.class)).containsKey("claimedUntil");
+
+		verify(mongoTemplate).remove(
+				eq(query(where("postId").in(List.of(postId)))),
+				eq(PostCleanupTask.class)
+		);
+		assertThat(worker.processed()).isEqualTo(1);
+	}
+
+	@Test
+	void failedRunsLeaveTheTaskLeasedForARetry() {
+		claims(task(1));
+		when(mongoTemplate.find(any(Query.class), eq(Like.class)))
+				.thenThrow(new DataAccessResourceFailureException("down"));
+
+		worker.run();
+
+		verify(mongoTemplate, never()).remove(any(Query.class), eq(PostCleanupTask.class));
+		assertThat(worker.processed()).isZero();
+	}
+
+	@Test
+	void exhaustedTasksAreDeadLettered() {
+		claims(task(MAX_ATTEMPTS + 1));
+
+		worker.run();
+
+		ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+		verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(PostCleanupTask.class));
+		assertThat(update.getValue().getUpdateObject().get("$set", Document.class)).containsKey("failedAt");
+		assertThat(update.getValue().getUpdateObject().get("$unset", Document.class)).containsKey("claimedUntil");
+		verify(mongoTemplate, never()).find(any(Query.class), eq(Like.class));
+		verify(mongoTemplate, never()).remove(any(Query.class), eq(PostCleanupTask.class));
+	}
+
+	private void claims(PostCleanupTask task) {
+		when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(PostCleanupTask.class)))
+				.thenReturn(task, (PostCleanupTask) null);
+	}
+
+	// as returned by the claim, attempts already counts it
+	private PostCleanupTask task(int attempts) {
+		return PostCleanupTask.builder()
+				.postId(postId)
+				.createdAt(LocalDateTime.now())
+				.claimedUntil(LocalDateTime.now().plusMinutes(5))
+				.attempts(attempts)
+				.build();
+	}
+
+}
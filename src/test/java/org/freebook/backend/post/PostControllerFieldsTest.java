@@ -0,0 +1,121 @@
+package org.freebook.backend.post;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.freebook.backend.configs.NdjsonExporter;
+import org.freebook.backend.user.AuthorSummaryCache;
+import org.freebook.backend.user.UserProfileCache;
+import org.freebook.backend.user.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.notNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PostControllerFieldsTest {
+
+	private final PostRepository postRepository = mock(PostRepository.class);
+	private final PostCache postCache = mock(PostCache.class);
+	private final RecentPostWindow recentPostWindow = mock(RecentPostWindow.class);
+	private final TrendingPosts trendingPosts = mock(TrendingPosts.class);
+	private final TagIndex tagIndex = mock(TagIndex.class);
+	private final PostController controller = new PostController(
+			postRepository,
+			mock(LikeRepository.class),
+			postCache,
+			recentPostWindow,
+			mock(AuthorSummaryCache.class),
+			mock(PostCleanupWorker.class),
+			mock(LikeWriteBuffer.class),
+			trendingPosts,
+			tagIndex,
+			mock(UserRepository.class),
+			mock(UserProfileCache.class),
+			mock(NdjsonExporter.class),
+			new ObjectMapper().findAndRegisterModules()
+	);
+
+	private final Post post = Post.builder()
+			.id(UUID.randomUUID())
+			.caption("caption")
+			.imgUrl("https://img")
+			.createdAt(LocalDateTime.of(2024, 5, 1, 12, 0))
+			.version(3L)
+			.build();
+
+	@Test
+	void legacyRecentPagesAreProjected() {
+		when(recentPostWindow.page(anyInt(), anyInt())).thenReturn(Optional.empty());
+		when(postRepository.findNewestPage(eq(0), eq(5), notNull())).thenReturn(List.of(post));
+
+		var response = controller.getRecentPosts(0, 5, null, null, "caption");
+
+		assertThat(items(response)).singleElement().satisfies(this::isTrimmed);
+	}
+
+	@Test
+	void indexedTagPagesAreTrimmed() {
+		when(tagIndex.newest(eq("java"), isNull(), anyInt())).thenReturn(Optional.of(List.of(PostCursor.of(post))));
+		when(postCache.findAllById(List.of(post.getId()))).thenReturn(Map.of(post.getId(), post));
+
+		var response = controller.getPostsByTag("java", 5, null, null, "caption");
+
+		assertThat(((CursorPage<?>) response.getBody()).getItems()).singleElement().satisfies(this::isTrimmed);
+	}
+
+	@Test
+	void trendingPostsAreTrimmed() {
+		when(trendingPosts.top(5)).thenReturn(List.of(post.getId()));
+		when(postCache.findAllById(List.of(post.getId()))).thenReturn(Map.of(post.getId(), post));
+
+		var response = controller.getTrendingPosts(5, null, "caption");
+
+		assertThat(items(response)).singleElement().satisfies(this::isTrimmed);
+	}
+
+	@Test
+	void batchesAreTrimmed() {
+		when(postCache.findAllById(any())).thenReturn(Map.of(post.getId(), post));
+
+		var response = controller.getPostsById(List.of(post.getId()), "caption");
+
+		assertThat(((PostBatch<?>) response.getBody()).getItems()).singleElement().satisfies(this::isTrimmed);
+		assertThat(controller.getPostsById(List.of(post.getId()), "nope").getStatusCode())
+				.isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
+	@Test
+	void versionIsOnlyInTheEntityTagUnlessSelected() {
+		when(postCache.getIfPresent(post.getId())).thenReturn(Optional.of(post));
+
+		var response = controller.getPostById(post.getId(), "caption");
+		var selected = controller.getPostById(post.getId(), "caption,version");
+
+		assertThat(response.getHeaders().getETag()).isNotNull();
+		assertThat(response.getBody()).satisfies(this::isTrimmed);
+		assertThat(selected.getBody()).asInstanceOf(InstanceOfAssertFactories.MAP).containsEntry("version", 3L);
+	}
+
+	private void isTrimmed(Object item) {
+		assertThat(item).asInstanceOf(InstanceOfAssertFactories.MAP).containsOnlyKeys("id", "createdAt", "caption");
+	}
+
+	private static List<?> items(ResponseEntity<?> response) {
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		return (List<?>) response.getBody();
+	}
+
+}
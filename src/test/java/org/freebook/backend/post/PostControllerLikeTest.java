@@ -0,0 +1,108 @@
+package org.freebook.backend.post;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.freebook.backend.configs.NdjsonExporter;
+import org.freebook.backend.user.AuthorSummaryCache;
+import org.freebook.backend.user.User;
+import org.freebook.backend.user.UserProfileCache;
+import org.freebook.backend.user.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PostControllerLikeTest {
+
+	private final PostRepository postRepository = mock(PostRepository.class);
+	private final LikeRepository likeRepository = mock(LikeRepository.class);
+	private final PostCache postCache = mock(PostCache.class);
+	private final PostController controller = new PostController(
+			postRepository,
+			likeRepository,
+			postCache,
+			mock(RecentPostWindow.class),
+			mock(AuthorSummaryCache.class),
+			mock(PostCleanupWorker.class),
+			mock(LikeWriteBuffer.class),
+			mock(TrendingPosts.class),
+			mock(TagIndex.class),
+			mock(UserRepository.class),
+			mock(UserProfileCache.class),
+			mock(NdjsonExporter.class),
+			new ObjectMapper()
+	);
+
+	private final UUID postId = UUID.randomUUID();
+	private final User user = User.builder().id(UUID.randomUUID()).accountId(UUID.randomUUID()).build();
+
+	@BeforeEach
+	void setUp() {
+		when(postRepository.existsById(postId)).thenReturn(true);
+		when(postRepository.incrementLikeCount(any(), anyLong())).thenReturn(true);
+	}
+
+	@Test
+	void aSecondLikeConflictsAndCountsOnce() {
+		when(likeRepository.insert(any(Like.class)))
+				.thenAnswer(invocation -> invocation.getArgument(0))
+				.thenThrow(new DuplicateKeyException("duplicate"));
+
+		assertThat(controller.likePost(postId, user).getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(controller.likePost(postId, user).getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+
+		verify(postRepository, times(1)).incrementLikeCount(postId, 1);
+		verify(postCache, times(1)).evict(postId);
+	}
+
+	@Test
+	void likingAPostDeletedMeanwhileTakesTheLikeBack() {
+		when(postRepository.incrementLikeCount(postId, 1)).thenReturn(false);
+
+		assertThat(controller.likePost(postId, user).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+
+		verify(likeRepository).delete(any(Like.class));
+	}
+
+	@Test
+	void aSecondUnlikeConflictsAndCountsOnce() {
+		when(likeRepository.deleteByPostIdAndUserId(postId, user.getId())).thenReturn(1L, 0L);
+
+		assertThat(controller.unLikePost(postId, user).getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(controller.unLikePost(postId, user).getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+
+		verify(postRepository, times(1)).incrementLikeCount(postId, -1);
+	}
+
+	@Test
+	void unlikingAMissingPostIsNotFound() {
+		when(postRepository.existsById(postId)).thenReturn(false);
+
+		assertThat(controller.unLikePost(postId, user).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+
+		verify(postRepository, never()).incrementLikeCount(any(), anyLong());
+	}
+
+	@Test
+	void likePagesAreClamped() {
+		when(likeRepository.findByPostIdOrderByCreatedAtDesc(any(), any())).thenReturn(new SliceImpl<>(List.of()));
+
+		controller.getPostLikes(postId, -1, 1_000_000);
+
+		verify(likeRepository).findByPostIdOrderByCreatedAtDesc(postId, PageRequest.of(0, 100));
+	}
+
+}
@@ -0,0 +1,55 @@
+package org.freebook.backend.post;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PostCursorTest {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 0, 30, 123_000_000);
+
+	@Test
+	void encodeRoundTrips() {
+		PostCursor cursor = new PostCursor(NOW, UUID.randomUUID());
+
+		String encoded = cursor.encode();
+
+		assertThat(encoded).matches("[A-Za-z0-9_-]+");
+		assertThat(PostCursor.decode(encoded)).isEqualTo(cursor);
+	}
+
+	@Test
+	void rejectsForeignCursors() {
+		assertThatThrownBy(() -> PostCursor.decode("not a cursor")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> PostCursor.decode("bm8tc2VwYXJhdG9y")).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void ordersNewestFirst() {
+		PostCursor older = new PostCursor(NOW.minusMinutes(1), UUID.randomUUID());
+		PostCursor newer = new PostCursor(NOW, UUID.randomUUID());
+
+		assertThat(PostCursor.compareNewestFirst(newer, older)).isNegative();
+		assertThat(PostCursor.compareNewestFirst(older, newer)).isPositive();
+		assertThat(PostCursor.compareNewestFirst(newer, newer)).isZero();
+	}
+
+	@Test
+	void breaksTiesByStoredIdBytes() {
+		// stored as little endian halves: 01 00 .. sorts before 00 .. 01, unlike UUID.compareTo
+		PostCursor lowStored = new PostCursor(NOW, new UUID(0x0100000000000000L, 0));
+		PostCursor highStored = new PostCursor(NOW, new UUID(0x0000000000000001L, 0));
+		List<PostCursor> cursors = new ArrayList<>(List.of(lowStored, highStored));
+
+		cursors.sort(PostCursor::compareNewestFirst);
+
+		assertThat(cursors).containsExactly(highStored, lowStored);
+	}
+
+}
@@ -0,0 +1,102 @@
+package org.freebook.backend.post;
+
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PostRepositoryCustomImplTest {
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final PostRepositoryCustomImpl repository = new PostRepositoryCustomImpl(mongoTemplate);
+
+	@Test
+	void likeCountsAreIncrementedInPlace() {
+		UUID postId = UUID.randomUUID();
+		when(mongoTemplate.getCollectionName(Post.class)).thenReturn("post");
+		when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq("post")))
+				.thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+		assertThat(repository.incrementLikeCount(postId, -1)).isTrue();
+
+		ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+		verify(mongoTemplate).updateFirst(query.capture(), eq(new Update().inc("likeCount", -1L)), eq("post"));
+		assertThat(query.getValue().getQueryObject()).isEqualTo(new Document("_id", postId));
+	}
+
+	@Test
+	void creatorTimelinesContinueAfterTheCursor() {
+		UUID creatorId = UUID.randomUUID();
+		PostCursor after = new PostCursor(LocalDateTime.of(2024, 5, 1, 12, 0), UUID.randomUUID());
+
+		repository.findNewestByCreator(creatorId, after, 20, null);
+
+		ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+		verify(mongoTemplate).find(query.capture(), eq(Post.class));
+		assertThat(query.getValue().getQueryObject()).isEqualTo(new Document("creatorId", creatorId)
+				.append("$or", List.of(
+						new Document("createdAt", new Document("$lt", after.getCreatedAt())),
+						new Document("createdAt", after.getCreatedAt()).append("id", new Document("$lt", after.getId()))
+				)));
+		assertThat(query.getValue().getSortObject()).isEqualTo(new Document("createdAt", -1).append("id", -1));
+		assertThat(query.getValue().getSkip()).isZero();
+		assertThat(query.getValue().getLimit()).isEqualTo(20);
+	}
+
+	@Test
+	void textSearchIsRankedByScore() {
+		repository.searchText("spring boot", 2, 10, null);
+
+		ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+		verify(mongoTemplate).find(query.capture(), eq(Post.class));
+		assertThat(query.getValue().getQueryObject().get("$text", Document.class))
+				.containsEntry("$search", "spring boot");
+		assertThat(query.getValue().getSortObject()).containsOnlyKeys("score");
+		assertThat(query.getValue().getSkip()).isEqualTo(20);
+		assertThat(query.getValue().getLimit()).isEqualTo(10);
+	}
+
+	@Test
+	void tagPrefixesAreQuotedAndAnchored() {
+		when(mongoTemplate.find(any(Query.class), eq(Post.class))).thenReturn(List.of());
+
+		repository.findByTag("c++", true, 0, 5, null);
+		repository.findByTag("c++", false, 0, 5, null);
+
+		ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+		verify(mongoTemplate, times(2)).find(query.capture(), eq(Post.class));
+		Object prefix = query.getAllValues().get(0).getQueryObject().get("tags");
+		assertThat(prefix).isInstanceOf(Pattern.class);
+		assertThat(((Pattern) prefix).pattern()).isEqualTo("^" + Pattern.quote("c++"));
+		assertThat(Pattern.compile(((Pattern) prefix).pattern()).matcher("c++17").find()).isTrue();
+		assertThat(Pattern.compile(((Pattern) prefix).pattern()).matcher("cc").find()).isFalse();
+		assertThat(query.getAllValues().get(1).getQueryObject()).isEqualTo(new Document("tags", "c++"));
+		assertThat(query.getAllValues().get(1).getSortObject()).isEqualTo(new Document("createdAt", -1));
+	}
+
+	@Test
+	void missingPostsAreReported() {
+		when(mongoTemplate.getCollectionName(Post.class)).thenReturn("post");
+		when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq("post")))
+				.thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+		assertThat(repository.incrementLikeCount(UUID.randomUUID(), 1)).isFalse();
+	}
+
+}
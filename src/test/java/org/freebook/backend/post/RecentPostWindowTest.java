@@ -0,0 +1,130 @@
+package org.freebook.backend.post;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RecentPostWindowTest {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+	private final PostRepository postRepository = mock(PostRepository.class);
+
+	@Test
+	void notLoadedWindowFallsThrough() {
+		RecentPostWindow window = new RecentPostWindow(postRepository, task -> { }, 10);
+
+		assertThat(window.page(null, 5)).isEmpty();
+		assertThat(window.page(0, 5)).isEmpty();
+	}
+
+	@Test
+	void servesPagesWithinTheWindow() {
+		List<Post> newest = posts(10);
+		RecentPostWindow window = loaded(newest, 10);
+
+		assertThat(window.page(null, 3)).contains(newest.subList(0, 3));
+		assertThat(window.page(PostCursor.of(newest.get(2)), 3)).contains(newest.subList(3, 6));
+		assertThat(window.page(1, 3)).contains(newest.subList(3, 6));
+	}
+
+	@Test
+	void pageReachingPastAPartialWindowFallsThrough() {
+		RecentPostWindow window = loaded(posts(10), 10);
+
+		assertThat(window.page(3, 3)).isEmpty();
+		assertThat(window.page(PostCursor.of(posts(10).get(8)), 3)).isEmpty();
+	}
+
+	@Test
+	void exhaustiveWindowAnswersPastItsEnd() {
+		List<Post> newest = posts(4);
+		RecentPostWindow window = loaded(newest, 10);
+
+		assertThat(window.page(1, 3)).contains(newest.subList(3, 4));
+		assertThat(window.page(5, 3)).contains(List.of());
+	}
+
+	@Test
+	void hugeOffsetsDoNotOverflow() {
+		RecentPostWindow window = loaded(posts(4), 10);
+
+		assertThat(window.page(Integer.MAX_VALUE, Integer.MAX_VALUE)).contains(List.of());
+		assertThat(window.page(0, Integer.MAX_VALUE)).hasValueSatisfying(page -> assertThat(page).hasSize(4));
+	}
+
+	@Test
+	void addKeepsOrderAndCapacity() {
+		List<Post> newest = posts(3);
+		RecentPostWindow window = loaded(newest, 3);
+		Post latest = post(NOW.plusMinutes(1));
+
+		window.add(latest);
+
+		assertThat(window.page(null, 3)).contains(List.of(latest, newest.get(0), newest.get(1)));
+		// the dropped post is no longer answered from the window
+		assertThat(window.page(1, 3)).isEmpty();
+	}
+
+	@Test
+	void updateAndRemoveApplyToHeldPosts() {
+		List<Post> newest = posts(3);
+		RecentPostWindow window = loaded(newest, 10);
+
+		window.update(newest.get(1).getId(), held -> held.toBuilder().likeCount(7).build());
+		window.remove(newest.get(0).getId());
+
+		assertThat(window.page(null, 5)).hasValueSatisfying(page -> {
+			assertThat(page).extracting(Post::getId).containsExactly(newest.get(1).getId(), newest.get(2).getId());
+			assertThat(page.get(0).getLikeCount()).isEqualTo(7);
+		});
+	}
+
+	@Test
+	void periodicRefreshShowsWritesOfOtherInstances() {
+		List<Post> newest = posts(3);
+		RecentPostWindow window = loaded(newest, 3);
+		Post elsewhere = post(NOW.plusMinutes(1));
+
+		when(postRepository.findNewest(any(), anyInt(), any()))
+				.thenReturn(List.of(elsewhere, newest.get(0), newest.get(1)));
+		assertThat(window.page(null, 1)).contains(newest.subList(0, 1));
+		window.refreshPeriodically();
+
+		assertThat(window.page(null, 3)).contains(List.of(elsewhere, newest.get(0), newest.get(1)));
+	}
+
+	private RecentPostWindow loaded(List<Post> newest, int capacity) {
+		when(postRepository.findNewest(any(), anyInt(), any()))
+				.thenReturn(newest.subList(0, Math.min(capacity, newest.size())));
+		RecentPostWindow window = new RecentPostWindow(postRepository, Runnable::run, capacity);
+		window.refresh();
+		return window;
+	}
+
+	// newest first, one minute apart
+	private static List<Post> posts(int count) {
+		List<Post> posts = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			posts.add(post(NOW.minusMinutes(i)));
+		}
+		return posts;
+	}
+
+	private static Post post(LocalDateTime createdAt) {
+		return Post.builder()
+				.id(UUID.nameUUIDFromBytes(createdAt.toString().getBytes()))
+				.createdAt(createdAt)
+				.build();
+	}
+
+}
@@ -0,0 +1,158 @@
+package org.freebook.backend.post;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TagIndexTest {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+
+	@Test
+	void notLoadedIndexAnswersNothing() {
+		TagIndex index = new TagIndex(mongoTemplate, Runnable::run, 10, 10, 100);
+
+		index.add(post(0, "java"));
+
+		assertThat(index.complete("ja", 5)).isEmpty();
+		assertThat(index.count("java")).isEmpty();
+		assertThat(index.newest("java", null, 5)).isEmpty();
+	}
+
+	@Test
+	void completesMostUsedFirst() {
+		TagIndex index = loaded(10, 10, 100,
+				post(0, "java", "javascript"), post(1, "java"), post(2, "jazz"), post(3, "kotlin"));
+
+		assertThat(index.complete("ja", 5)).hasValueSatisfying(tags -> assertThat(tags).containsExactly(
+				new TagCount("java", 2), new TagCount("javascript", 1), new TagCount("jazz", 1)
+		));
+		assertThat(index.complete("ja", 1)).hasValueSatisfying(tags -> assertThat(tags).containsExactly(
+				new TagCount("java", 2)
+		));
+		assertThat(index.count("java")).contains(2L);
+		assertThat(index.count("scala")).contains(0L);
+	}
+
+	@Test
+	void pagesNewestFirst() {
+		Post newest = post(0, "java");
+		Post middle = post(1, "java");
+		Post oldest = post(2, "java");
+		TagIndex index = loaded(10, 10, 100, oldest, newest, middle);
+
+		assertThat(index.newest("java", null, 2))
+				.contains(List.of(PostCursor.of(newest), PostCursor.of(middle)));
+		assertThat(index.newest("java", PostCursor.of(middle), 2))
+				.contains(List.of(PostCursor.of(oldest)));
+	}
+
+	@Test
+	void pageReachingPastDroppedPostsFallsThrough() {
+		TagIndex index = loaded(10, 2, 100, post(0, "java"), post(1, "java"), post(2, "java"));
+
+		assertThat(index.newest("java", null, 2)).hasValueSatisfying(page -> assertThat(page).hasSize(2));
+		assertThat(index.newest("java", null, 3)).isEmpty();
+		assertThat(index.count("java")).contains(3L);
+	}
+
+	@Test
+	void heldPostsAreBoundedInTotal() {
+		TagIndex index = loaded(10, 10, 3,
+				post(0, "java", "kotlin"), post(1, "java", "kotlin"), post(2, "java", "kotlin"));
+
+		assertThat(index.cursors()).isEqualTo(3);
+		assertThat(index.count("java")).contains(3L);
+		assertThat(index.count("kotlin")).contains(3L);
+	}
+
+	@Test
+	void unknownTagsFallThroughOnceFull() {
+		TagIndex index = loaded(1, 10, 100, post(0, "java"), post(1, "kotlin"));
+
+		assertThat(index.count("java")).contains(1L);
+		assertThat(index.count("kotlin")).isEmpty();
+		assertThat(index.newest("kotlin", null, 5)).isEmpty();
+	}
+
+	@Test
+	void blankPrefixesAreRejected() {
+		TagIndex index = loaded(10, 10, 100, post(0, "java"));
+
+		assertThatThrownBy(() -> index.complete(" ", 5)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void rebuildClearsFull() {
+		Post kotlin = post(1, "kotlin");
+		TagIndex index = loaded(1, 10, 100, post(0, "java"), kotlin);
+
+		when(mongoTemplate.stream(any(Query.class), eq(Post.class))).thenReturn(Stream.of(kotlin));
+		index.rebuild();
+
+		assertThat(index.count("java")).contains(0L);
+		assertThat(index.count("kotlin")).contains(1L);
+	}
+
+	@Test
+	void rebuildPicksUpPostsWrittenElsewhere() {
+		Post java = post(1, "java");
+		TagIndex index = loaded(10, 10, 100, java);
+
+		// written by another instance, never seen by this one's write paths
+		Post elsewhere = post(0, "java", "scala");
+		when(mongoTemplate.stream(any(Query.class), eq(Post.class))).thenReturn(Stream.of(elsewhere, java));
+		index.rebuild();
+
+		assertThat(index.count("java")).contains(2L);
+		assertThat(index.count("scala")).contains(1L);
+		assertThat(index.newest("java", null, 2)).contains(List.of(PostCursor.of(elsewhere), PostCursor.of(java)));
+	}
+
+	@Test
+	void removeAndUpdateKeepCountsAndHeldPosts() {
+		Post first = post(0, "java");
+		Post second = post(1, "java", "kotlin");
+		TagIndex index = loaded(10, 10, 100, first, second);
+
+		index.remove(first);
+		index.update(List.of("java", "kotlin"), second.toBuilder().tags(List.of("scala")).build());
+
+		assertThat(index.count("java")).contains(0L);
+		assertThat(index.count("scala")).contains(1L);
+		assertThat(index.size()).isEqualTo(1);
+		assertThat(index.cursors()).isEqualTo(1);
+	}
+
+	private TagIndex loaded(int maxTags, int postsPerTag, long maxCursors, Post... posts) {
+		when(mongoTemplate.stream(any(Query.class), eq(Post.class))).thenReturn(Stream.of(posts));
+		TagIndex index = new TagIndex(mongoTemplate, Runnable::run, maxTags, postsPerTag, maxCursors);
+		index.load();
+		return index;
+	}
+
+	// minutesAgo orders the posts newest first
+	private static Post post(int minutesAgo, String... tags) {
+		LocalDateTime createdAt = NOW.minusMinutes(minutesAgo);
+		return Post.builder()
+				.id(UUID.nameUUIDFromBytes(createdAt.toString().getBytes()))
+				.createdAt(createdAt)
+				.tags(List.of(tags))
+				.build();
+	}
+
+}
@@ -0,0 +1,111 @@
+package org.freebook.backend.post;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TrendingPostsTest {
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+
+	private TrendingPosts trending(int maxTracked) {
+		return new TrendingPosts(mongoTemplate, mock(PostRepository.class), Runnable::run,
+				Duration.ofHours(6), maxTracked, 100, 1, "test-1");
+	}
+
+	@Test
+	void ranksByLikes() {
+		TrendingPosts trending = trending(10);
+		UUID quiet = UUID.randomUUID();
+		UUID popular = UUID.randomUUID();
+
+		trending.liked(quiet);
+		trending.liked(popular);
+		trending.liked(popular);
+
+		assertThat(trending.top(10)).containsExactly(popular, quiet);
+		assertThat(trending.top(1)).containsExactly(popular);
+	}
+
+	@Test
+	void newerEventsOutweighOlderOnes() {
+		TrendingPosts trending = trending(10);
+		Post old = post(LocalDateTime.now().minusHours(12));
+		Post fresh = post(LocalDateTime.now());
+
+		trending.created(old);
+		trending.created(old);
+		trending.created(fresh);
+
+		// two creates twelve hours (two half-lives) ago are worth half of one now
+		assertThat(trending.top(2)).containsExactly(fresh.getId(), old.getId());
+	}
+
+	@Test
+	void unlikedAndRemovedPostsLeave() {
+		TrendingPosts trending = trending(10);
+		UUID unliked = UUID.randomUUID();
+		UUID removed = UUID.randomUUID();
+
+		trending.liked(unliked);
+		trending.unliked(unliked);
+		trending.liked(removed);
+		trending.remove(removed);
+
+		assertThat(trending.top(10)).isEmpty();
+		assertThat(trending.size()).isZero();
+	}
+
+	@Test
+	void keepsOnlyTheBestTracked() {
+		TrendingPosts trending = trending(2);
+		UUID first = UUID.randomUUID();
+		UUID second = UUID.randomUUID();
+		UUID third = UUID.randomUUID();
+
+		trending.liked(first);
+		trending.liked(first);
+		trending.liked(first);
+		trending.liked(second);
+		trending.liked(second);
+		trending.liked(third);
+
+		assertThat(trending.size()).isEqualTo(2);
+		assertThat(trending.top(10)).containsExactly(first, second);
+	}
+
+	@Test
+	void checkpointIsKeptPerInstanceAndRestored() {
+		TrendingPosts trending = trending(10);
+		UUID liked = UUID.randomUUID();
+		trending.liked(liked);
+
+		trending.checkpoint();
+
+		ArgumentCaptor<TrendingCheckpoint> saved = ArgumentCaptor.forClass(TrendingCheckpoint.class);
+		verify(mongoTemplate).save(saved.capture());
+		assertThat(saved.getValue().getId()).isEqualTo(TrendingCheckpoint.idOf("test-1"));
+		assertThat(saved.getValue().getScores()).extracting(TrendingCheckpoint.Score::getPostId).containsExactly(liked);
+
+		when(mongoTemplate.findById(eq(TrendingCheckpoint.idOf("test-1")), eq(TrendingCheckpoint.class)))
+				.thenReturn(saved.getValue());
+		TrendingPosts restarted = trending(10);
+		restarted.load();
+		assertThat(restarted.top(10)).containsExactly(liked);
+	}
+
+	private static Post post(LocalDateTime createdAt) {
+		return Post.builder().id(UUID.randomUUID()).createdAt(createdAt).build();
+	}
+
+}
@@ -0,0 +1,83 @@
+package org.freebook.backend.user;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuthUserCacheTest {
+
+	private final AuthUserRepository authUserRepository = mock(AuthUserRepository.class);
+	private final AuthUserCache cache = new AuthUserCache(authUserRepository, 10, Duration.ofMinutes(5), false);
+
+	@Test
+	void warmUsersAreNotReadAgain() {
+		AuthUser ada = authUser("ada@freebook.org");
+		when(authUserRepository.findByEmail(ada.getEmail())).thenReturn(Optional.of(ada));
+
+		cache.loadUserByUsername(ada.getEmail());
+		cache.loadUserByUsername(ada.getEmail());
+
+		verify(authUserRepository, times(1)).findByEmail(ada.getEmail());
+	}
+
+	@Test
+	void unknownUsersAreNotCached() {
+		assertThatThrownBy(() -> cache.loadUserByUsername("nobody@freebook.org"))
+				.isInstanceOf(UsernameNotFoundException.class);
+		assertThatThrownBy(() -> cache.loadUserByUsername("nobody@freebook.org"))
+				.isInstanceOf(UsernameNotFoundException.class);
+
+		verify(authUserRepository, times(2)).findByEmail("nobody@freebook.org");
+	}
+
+	@Test
+	void savingAChangedEmailEvictsTheOldEntry() {
+		AuthUser before = authUser("ada@freebook.org");
+		when(authUserRepository.findByEmail(before.getEmail())).thenReturn(Optional.of(before));
+		cache.loadUserByUsername(before.getEmail());
+		AuthUser after = authUser("lovelace@freebook.org");
+		after.setId(before.getId());
+
+		cache.onAfterSave(new AfterSaveEvent<>(after, new Document(), "_user"));
+		when(authUserRepository.findByEmail(before.getEmail())).thenReturn(Optional.empty());
+
+		assertThatThrownBy(() -> cache.loadUserByUsername(before.getEmail()))
+				.isInstanceOf(UsernameNotFoundException.class);
+	}
+
+	@Test
+	void deletesStartCold() {
+		AuthUser ada = authUser("ada@freebook.org");
+		when(authUserRepository.findByEmail(ada.getEmail())).thenReturn(Optional.of(ada));
+		cache.loadUserByUsername(ada.getEmail());
+
+		cache.onAfterDelete(new AfterDeleteEvent<>(new Document(), AuthUser.class, "_user"));
+		cache.loadUserByUsername(ada.getEmail());
+
+		verify(authUserRepository, times(2)).findByEmail(ada.getEmail());
+	}
+
+	private static AuthUser authUser(String email) {
+		return AuthUser.builder()
+				.id(UUID.randomUUID())
+				.username("ada")
+				.email(email)
+				.password("{noop}unused")
+				.role(UserRoles.USER)
+				.build();
+	}
+
+}
@@ -0,0 +1,54 @@
+package org.freebook.backend.user;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuthorSummaryCacheTest {
+
+	private final UserRepository userRepository = mock(UserRepository.class);
+	private final AuthorSummaryCache cache = new AuthorSummaryCache(userRepository, 10, Duration.ofMinutes(10), false);
+
+	@Test
+	void aPageResolvesItsAuthorsWithOneQuery() {
+		AuthorSummary ada = author("ada");
+		AuthorSummary grace = author("grace");
+		when(userRepository.findByIdIn(anyCollection())).thenReturn(List.of(ada, grace));
+
+		var authors = cache.findAllById(List.of(ada.getId(), grace.getId()));
+		cache.findAllById(List.of(ada.getId(), grace.getId()));
+
+		assertThat(authors).containsOnlyKeys(ada.getId(), grace.getId());
+		verify(userRepository, times(1)).findByIdIn(anyCollection());
+	}
+
+	@Test
+	void profileWritesEvictTheirAuthor() {
+		AuthorSummary ada = author("ada");
+		AuthorSummary grace = author("grace");
+		when(userRepository.findByIdIn(anyCollection())).thenReturn(List.of(ada, grace));
+		cache.findAllById(List.of(ada.getId(), grace.getId()));
+
+		cache.evict(ada.getId());
+		cache.onAfterSave(new AfterSaveEvent<>(User.builder().id(grace.getId()).build(), new Document(), "user"));
+		when(userRepository.findByIdIn(anyCollection())).thenReturn(List.of());
+
+		assertThat(cache.findAllById(List.of(ada.getId(), grace.getId()))).isEmpty();
+	}
+
+	private static AuthorSummary author(String username) {
+		return new AuthorSummary(UUID.randomUUID(), username, username, "");
+	}
+
+}
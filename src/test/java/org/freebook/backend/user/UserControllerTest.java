@@ -0,0 +1,142 @@
+package org.freebook.backend.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.freebook.backend.configs.FieldSelection;
+import org.freebook.backend.configs.NdjsonExporter;
+import org.freebook.backend.post.CursorPage;
+import org.freebook.backend.post.LikeRepository;
+import org.freebook.backend.post.Post;
+import org.freebook.backend.post.PostBatch;
+import org.freebook.backend.post.PostCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserControllerTest {
+
+	private final UserRepository userRepository = mock(UserRepository.class);
+	private final PostCache postCache = mock(PostCache.class);
+	private final UserController controller = new UserController(
+			userRepository,
+			mock(LikeRepository.class),
+			mock(NdjsonExporter.class),
+			postCache,
+			new ObjectMapper(),
+			mock(UserProfileCache.class),
+			mock(AuthorSummaryCache.class)
+	);
+
+	// oldest saved first, as stored
+	private final List<UUID> saved = new ArrayList<>();
+	private final User user = User.builder().id(UUID.randomUUID()).savedPosts(saved).build();
+
+	@BeforeEach
+	void setUp() {
+		for (int i = 0; i < 5; i++) {
+			saved.add(UUID.randomUUID());
+		}
+		when(postCache.findAllById(any())).thenAnswer(invocation -> {
+			Collection<UUID> ids = invocation.getArgument(0);
+			return ids.stream()
+					.map(id -> Post.builder().id(id).build())
+					.collect(Collectors.toMap(Post::getId, Function.identity()));
+		});
+	}
+
+	@Test
+	void savedPagesAreNewestFirst() {
+		PostBatch<?> first = batch(controller.getSavedPosts(user, 2, null));
+		PostBatch<?> last = batch(controller.getSavedPosts(user, 3, first.getNextCursor()));
+
+		assertThat(ids(first)).containsExactly(saved.get(4), saved.get(3));
+		assertThat(ids(last)).containsExactly(saved.get(2), saved.get(1), saved.get(0));
+		assertThat(last.getNextCursor()).isNull();
+	}
+
+	@Test
+	void savesAndUnsavesBetweenPagesShiftNothing() {
+		List<UUID> before = List.copyOf(saved);
+		PostBatch<?> first = batch(controller.getSavedPosts(user, 2, null));
+
+		saved.add(UUID.randomUUID());
+		saved.remove(before.get(4));
+		PostBatch<?> second = batch(controller.getSavedPosts(user, 2, first.getNextCursor()));
+
+		assertThat(ids(second)).containsExactly(before.get(2), before.get(1));
+	}
+
+	@Test
+	void resumesAtTheIndexOnceTheLastPostIsUnsaved() {
+		List<UUID> before = List.copyOf(saved);
+		PostBatch<?> first = batch(controller.getSavedPosts(user, 2, null));
+
+		saved.remove(before.get(3));
+		PostBatch<?> second = batch(controller.getSavedPosts(user, 2, first.getNextCursor()));
+
+		assertThat(ids(second)).containsExactly(before.get(2), before.get(1));
+	}
+
+	@Test
+	void invalidCursorsAreRejected() {
+		assertThat(controller.getSavedPosts(user, 2, "not a cursor").getStatusCode())
+				.isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
+	@Test
+	void versionIsReadForTheEntityTagButNotRendered() {
+		User projected = User.builder().id(user.getId()).username("ada").version(4L).build();
+		when(userRepository.findProjectedById(eq(user.getId()), any())).thenReturn(projected);
+
+		var response = controller.getUser(user.getId(), "username");
+
+		assertThat(response.getHeaders().getETag()).isNotNull();
+		assertThat(response.getBody()).asInstanceOf(InstanceOfAssertFactories.MAP).containsOnlyKeys("id", "username");
+		ArgumentCaptor<FieldSelection> selection = ArgumentCaptor.forClass(FieldSelection.class);
+		verify(userRepository).findProjectedById(eq(user.getId()), selection.capture());
+		assertThat(selection.getValue().applyTo(new Query()).getFieldsObject())
+				.containsOnlyKeys("id", "username", "version");
+	}
+
+	@Test
+	void searchPagesEndWithACursorToTheLastUser() {
+		AuthorSummary ada = new AuthorSummary(UUID.randomUUID(), "ada", null, null);
+		AuthorSummary adam = new AuthorSummary(UUID.randomUUID(), "adam", null, null);
+		AuthorSummary adele = new AuthorSummary(UUID.randomUUID(), "adele", null, null);
+		when(userRepository.searchByPrefix("ad", null, 3)).thenReturn(List.of(ada, adam, adele));
+
+		var response = controller.searchUsers(" AD ", 2, null);
+
+		CursorPage<?> page = (CursorPage<?>) response.getBody();
+		assertThat(page.getItems()).isEqualTo(List.of(ada, adam));
+		assertThat(UserCursor.decode(page.getNextCursor())).isEqualTo(UserCursor.of(adam));
+		assertThat(controller.searchUsers("ad", 2, "not a cursor").getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
+	private static PostBatch<?> batch(ResponseEntity<?> response) {
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		return (PostBatch<?>) response.getBody();
+	}
+
+	private static List<UUID> ids(PostBatch<?> batch) {
+		return batch.getItems().stream().map(item -> ((Post) item).getId()).toList();
+	}
+
+}
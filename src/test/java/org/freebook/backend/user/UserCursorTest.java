@@ -0,0 +1,35 @@
+package org.freebook.backend.user;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserCursorTest {
+
+	@Test
+	void encodeRoundTrips() {
+		UserCursor cursor = new UserCursor("ada|lovelace", UUID.randomUUID());
+
+		String encoded = cursor.encode();
+
+		assertThat(encoded).matches("[A-Za-z0-9_-]+");
+		assertThat(UserCursor.decode(encoded)).isEqualTo(cursor);
+	}
+
+	@Test
+	void keysAreTheNormalizedUsername() {
+		AuthorSummary user = new AuthorSummary(UUID.randomUUID(), "Ádà", "Ada", null);
+
+		assertThat(UserCursor.of(user)).isEqualTo(new UserCursor("ada", user.getId()));
+	}
+
+	@Test
+	void rejectsForeignCursors() {
+		assertThatThrownBy(() -> UserCursor.decode("not a cursor")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> UserCursor.decode("bm8tc2VwYXJhdG9y")).isInstanceOf(IllegalArgumentException.class);
+	}
+
+}
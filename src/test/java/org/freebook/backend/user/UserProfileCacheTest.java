@@ -0,0 +1,67 @@
+package org.freebook.backend.user;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserProfileCacheTest {
+
+	private final UserRepository userRepository = mock(UserRepository.class);
+	private final UserProfileCache cache = new UserProfileCache(userRepository, 10, Duration.ofMinutes(5), false);
+
+	@Test
+	void resolvesTheProfileOnceByAccount() {
+		User user = cached();
+
+		assertThat(cache.getByAccountId(user.getAccountId())).contains(user);
+
+		verify(userRepository, times(1)).findByAccountId(user.getAccountId());
+	}
+
+	@Test
+	void savesThroughTheRepositoryEvict() {
+		User user = cached();
+
+		cache.onAfterSave(new AfterSaveEvent<>(user, new Document(), "user"));
+		cache.getByAccountId(user.getAccountId());
+
+		verify(userRepository, times(2)).findByAccountId(user.getAccountId());
+	}
+
+	@Test
+	void atomicUpdatesEvictByAccountOrProfileId() {
+		User first = cached();
+		User second = cached();
+		User third = cached();
+
+		cache.evict(first.getAccountId());
+		cache.evictByUserId(second.getId());
+		cache.evictByUserIds(List.of(third.getId()));
+		cache.getByAccountId(first.getAccountId());
+		cache.getByAccountId(second.getAccountId());
+		cache.getByAccountId(third.getAccountId());
+
+		verify(userRepository, times(2)).findByAccountId(first.getAccountId());
+		verify(userRepository, times(2)).findByAccountId(second.getAccountId());
+		verify(userRepository, times(2)).findByAccountId(third.getAccountId());
+	}
+
+	private User cached() {
+		User user = User.builder().id(UUID.randomUUID()).accountId(UUID.randomUUID()).name("Ada").build();
+		when(userRepository.findByAccountId(user.getAccountId())).thenReturn(Optional.of(user));
+		cache.getByAccountId(user.getAccountId());
+		return user;
+	}
+
+}
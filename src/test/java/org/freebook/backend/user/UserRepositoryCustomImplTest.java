@@ -0,0 +1,106 @@
+package org.freebook.backend.user;
+
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserRepositoryCustomImplTest {
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final UserRepositoryCustomImpl repository = new UserRepositoryCustomImpl(mongoTemplate);
+
+	private final UUID userId = UUID.randomUUID();
+	private final UUID postId = UUID.randomUUID();
+
+	@Test
+	void savingIsOneUpdateGuardedOnTheList() {
+		when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq("user")))
+				.thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+		assertThat(repository.addSavedPost(userId, postId)).isTrue();
+
+		ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+		verify(mongoTemplate).updateFirst(query.capture(), eq(new Update().addToSet("savedPosts", postId)), eq("user"));
+		assertThat(query.getValue().getQueryObject())
+				.isEqualTo(new Document("_id", userId).append("savedPosts", new Document("$ne", postId)));
+	}
+
+	@Test
+	void aDuplicateSaveMatchesNothing() {
+		when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq("user")))
+				.thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+		assertThat(repository.addSavedPost(userId, postId)).isFalse();
+	}
+
+	@Test
+	void postCountsAreIncrementedInPlace() {
+		repository.incrementPostCount(userId, -1);
+
+		ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+		verify(mongoTemplate).updateFirst(query.capture(), eq(new Update().inc("postCount", -1L)), eq("user"));
+		assertThat(query.getValue().getQueryObject()).isEqualTo(new Document("_id", userId));
+	}
+
+	@Test
+	void postCountsReadOnlyTheCounter() {
+		User user = new User();
+		user.setPostCount(3);
+		when(mongoTemplate.findOne(any(Query.class), eq(User.class))).thenReturn(user, (User) null);
+
+		assertThat(repository.getPostCount(userId)).isEqualTo(3);
+		assertThat(repository.getPostCount(userId)).isZero();
+
+		ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+		verify(mongoTemplate, times(2)).findOne(query.capture(), eq(User.class));
+		assertThat(query.getValue().getFieldsObject()).isEqualTo(new Document("postCount", 1));
+	}
+
+	@Test
+	void searchesContinueAfterTheCursorInKeyOrder() {
+		UserCursor after = new UserCursor("ada", UUID.randomUUID());
+
+		repository.searchByPrefix("ad", after, 20);
+
+		ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+		verify(mongoTemplate).find(query.capture(), eq(AuthorSummary.class), eq("user"));
+		List<?> and = query.getValue().getQueryObject().get("$and", List.class);
+		assertThat(and).hasSize(2);
+		assertThat(and.get(1)).isEqualTo(new Document("$or", List.of(
+				new Document("usernameKey", new Document("$gt", "ada")),
+				new Document("usernameKey", "ada").append("_id", new Document("$gt", after.getId()))
+		)));
+		assertThat(query.getValue().getSortObject()).isEqualTo(new Document("usernameKey", 1).append("_id", 1));
+		assertThat(query.getValue().getSkip()).isZero();
+		assertThat(query.getValue().getLimit()).isEqualTo(20);
+	}
+
+	@Test
+	void unsavingOnlyMatchesASavedPost() {
+		when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq("user")))
+				.thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+		assertThat(repository.removeSavedPost(userId, postId)).isFalse();
+
+		ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+		verify(mongoTemplate).updateFirst(query.capture(), eq(new Update().pull("savedPosts", postId)), eq("user"));
+		assertThat(query.getValue().getQueryObject())
+				.isEqualTo(new Document("_id", userId).append("savedPosts", postId));
+	}
+
+}
@@ -0,0 +1,29 @@
+package org.freebook.backend.user;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserSearchKeysTest {
+
+	@Test
+	void normalizesAccentsCaseAndSpaces() {
+		assertThat(UserSearchKeys.normalize("  Zoë   Ångström ")).isEqualTo("zoe angstrom");
+		assertThat(UserSearchKeys.normalize("ＡＢＣ")).isEqualTo("abc");
+		assertThat(UserSearchKeys.normalize(null)).isEmpty();
+	}
+
+	@Test
+	void nameKeysStartAtEveryWord() {
+		assertThat(UserSearchKeys.nameKeys("Jean  Luc Picard"))
+				.containsExactly("jean luc picard", "luc picard", "picard");
+		assertThat(UserSearchKeys.nameKeys("Ada")).containsExactly("ada");
+	}
+
+	@Test
+	void noKeysForBlankNames() {
+		assertThat(UserSearchKeys.nameKeys("   ")).isEmpty();
+		assertThat(UserSearchKeys.nameKeys(null)).isEmpty();
+	}
+
+}